@@ -4,9 +4,9 @@ import com.vuog.telebotmanager.domain.entity.Bot;
 import com.vuog.telebotmanager.domain.entity.BotPlugin;
 import com.vuog.telebotmanager.domain.entity.Command;
 import com.vuog.telebotmanager.domain.repository.BotRepository;
-import com.vuog.telebotmanager.domain.repository.CommandRepository;
 import com.vuog.telebotmanager.domain.repository.PluginRepository;
 import com.vuog.telebotmanager.domain.service.PluginManager;
+import com.vuog.telebotmanager.infrastructure.service.CommandIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,12 +27,11 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BotLifecycleService {
 
     private final BotRepository botRepository;
-    private final CommandRepository commandRepository;
     private final PluginRepository pluginRepository;
     private final PluginManager pluginManager;
+    private final CommandIndex commandIndex;
 
-    // In-memory cache for loaded bot commands
-    private final Map<Long, List<Command>> botCommandsCache = new ConcurrentHashMap<>();
+    // In-memory cache for loaded bot plugins; commands live in the command index
     private final Map<Long, List<BotPlugin>> botPluginsCache = new ConcurrentHashMap<>();
 
     /**
@@ -62,7 +61,7 @@ public class BotLifecycleService {
 
             log.info("Bot {} started successfully with {} commands and {} plugins",
                     botId,
-                    botCommandsCache.getOrDefault(botId, List.of()).size(),
+                    commandIndex.getCommands(botId).size(),
                     botPluginsCache.getOrDefault(botId, List.of()).size());
 
             return bot;
@@ -93,8 +92,8 @@ public class BotLifecycleService {
             // Unload bot plugins
             unloadBotPlugins(botId);
 
-            // Clear bot commands cache
-            botCommandsCache.remove(botId);
+            // Clear bot commands index
+            commandIndex.evict(botId);
             botPluginsCache.remove(botId);
 
             // Deactivate the bot
@@ -128,26 +127,9 @@ public class BotLifecycleService {
     private void loadBotCommands(Long botId) {
         log.info("Loading commands for bot: {}", botId);
 
-        List<Command> combined = commandRepository.findEnabledCommandsByBotIdOrGlobal(botId);
-        // Deduplicate by command string, preferring bot-specific over global
-        java.util.Map<String, Command> byName = new java.util.LinkedHashMap<>();
-        for (Command c : combined) {
-            String key = c.getCommand();
-            if (!byName.containsKey(key)) {
-                byName.put(key, c);
-            } else {
-                Command existing = byName.get(key);
-                boolean existingIsGlobal = existing.getBot() == null;
-                boolean currentIsBotSpecific = c.getBot() != null;
-                if (existingIsGlobal && currentIsBotSpecific) {
-                    byName.put(key, c);
-                }
-            }
-        }
-        List<Command> deduped = new java.util.ArrayList<>(byName.values());
-        botCommandsCache.put(botId, deduped);
+        int count = commandIndex.rebuild(botId);
 
-        log.info("Loaded {} commands for bot: {} (including global)", deduped.size(), botId);
+        log.info("Loaded {} commands for bot: {} (including global)", count, botId);
     }
 
     /**
@@ -202,7 +184,7 @@ public class BotLifecycleService {
      */
     @Transactional(readOnly = true)
     public List<Command> getBotCommands(Long botId) {
-        return botCommandsCache.getOrDefault(botId, List.of());
+        return List.copyOf(commandIndex.getLoadedCommands(botId));
     }
 
     /**
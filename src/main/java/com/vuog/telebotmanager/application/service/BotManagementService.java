@@ -8,10 +8,14 @@ import com.vuog.telebotmanager.domain.entity.Command;
 import com.vuog.telebotmanager.domain.repository.BotHistoryRepository;
 import com.vuog.telebotmanager.domain.repository.BotRepository;
 import com.vuog.telebotmanager.domain.repository.CommandRepository;
+import com.vuog.telebotmanager.domain.repository.PluginRepository;
 import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
 import com.vuog.telebotmanager.infrastructure.command.DefaultBotCommands;
+import com.vuog.telebotmanager.infrastructure.service.CommandDispatchTable;
+import com.vuog.telebotmanager.infrastructure.service.ExecutionStatistics;
 import com.vuog.telebotmanager.presentation.dto.query.BotQuery;
 import com.vuog.telebotmanager.presentation.dto.request.CreateBotRequest;
 import com.vuog.telebotmanager.presentation.dto.request.UpdateBotRequest;
@@ -23,6 +27,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,9 +43,11 @@ public class BotManagementService implements BotManagementUseCase {
 
     private final BotRepository botRepository;
     private final CommandRepository commandRepository;
+    private final PluginRepository pluginRepository;
     private final BotHistoryRepository botHistoryRepository;
-    private final List<CommandHandler> commandHandlers;
+    private final CommandDispatchTable commandDispatchTable;
     private final DefaultBotCommands defaultBotCommands;
+    private final ExecutionStatistics executionStatistics;
 
     @Override
     public Bot createBot(CreateBotRequest request) {
@@ -165,6 +172,7 @@ public class BotManagementService implements BotManagementUseCase {
         botHistoryRepository.save(history);
 
         botRepository.delete(bot);
+        executionStatistics.removeBot(botId);
 
         log.info("Bot deleted successfully with ID: {}", botId);
     }
@@ -249,20 +257,26 @@ public class BotManagementService implements BotManagementUseCase {
             return CommandResponse.error(request.getCommandId(), "Command is not executable", "COMMAND_NOT_EXECUTABLE");
         }
 
-        // Find appropriate handler
-        CommandHandler handler = findCommandHandler(request, command);
+        // Find appropriate handler, sharing the command already loaded here
+        CommandContext context = CommandContext.of(request, bot.getId(), command);
+        CommandHandler handler = findCommandHandler(context);
         if (handler == null) {
             return CommandResponse.error(request.getCommandId(), "No handler found for command", "NO_HANDLER_FOUND");
         }
 
         // Execute command
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            CommandResponse response = handler.execute(request);
+            CommandResponse response = handler.execute(context);
+            success = response != null && response.isSuccess();
             log.info("Command executed successfully for bot: {}, command: {}", request.getBotId(), request.getCommand());
             return response;
         } catch (Exception e) {
             log.error("Error executing command for bot: {}, command: {}", request.getBotId(), request.getCommand(), e);
             return CommandResponse.error(request.getCommandId(), "Command execution failed: " + e.getMessage(), "EXECUTION_ERROR");
+        } finally {
+            executionStatistics.record(bot.getId(), command.getId(), success, (System.nanoTime() - start) / 1_000_000);
         }
     }
 
@@ -272,11 +286,13 @@ public class BotManagementService implements BotManagementUseCase {
         Bot bot = botRepository.findById(botId)
                 .orElseThrow(() -> new IllegalArgumentException("Bot not found with ID: " + botId));
 
-        List<Command> commands = commandRepository.findByBotId(botId);
-        long totalCommands = commands.size();
-        long activeCommands = commands.stream().mapToLong(c -> c.getIsEnabled() ? 1 : 0).sum();
-
-        // Note: CommandExecution statistics would need to be calculated from CommandExecution repository
+        long totalCommands = commandRepository.countByBotId(botId);
+        long activeCommands = commandRepository.countEnabledCommandsByBotId(botId);
+        ExecutionStatistics.Snapshot executions = executionStatistics.getBotStatistics(botId);
+        LocalDateTime lastActivity = executions.lastExecutionAt() != null
+                && (bot.getUpdatedAt() == null || executions.lastExecutionAt().isAfter(bot.getUpdatedAt()))
+                ? executions.lastExecutionAt()
+                : bot.getUpdatedAt();
 
         return new BotStatistics() {
             @Override
@@ -301,32 +317,47 @@ public class BotManagementService implements BotManagementUseCase {
 
             @Override
             public long getTotalExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.totalExecutions();
             }
 
             @Override
             public long getSuccessfulExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.successfulExecutions();
             }
 
             @Override
             public long getFailedExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.failedExecutions();
             }
 
             @Override
             public double getSuccessRate() {
-                return 0.0; // Would be calculated from CommandExecution repository
+                return executions.successRate();
             }
 
             @Override
             public long getAverageExecutionTime() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.averageExecutionTimeMs();
+            }
+
+            @Override
+            public long getP50ExecutionTime() {
+                return executions.p50ExecutionTimeMs();
+            }
+
+            @Override
+            public long getP95ExecutionTime() {
+                return executions.p95ExecutionTimeMs();
+            }
+
+            @Override
+            public long getP99ExecutionTime() {
+                return executions.p99ExecutionTimeMs();
             }
 
             @Override
             public String getLastActivity() {
-                return bot.getUpdatedAt().toString();
+                return lastActivity != null ? lastActivity.toString() : null;
             }
         };
     }
@@ -334,17 +365,13 @@ public class BotManagementService implements BotManagementUseCase {
     @Override
     @Transactional(readOnly = true)
     public AllBotsStatistics getAllBotsStatistics() {
-        List<Bot> allBots = botRepository.findAll();
-        long totalBots = allBots.size();
-        long activeBots = allBots.stream().mapToLong(b -> b.getIsActive() ? 1 : 0).sum();
-        
-        List<Command> allCommands = commandRepository.findAll();
-        long totalCommands = allCommands.size();
-        long activeCommands = allCommands.stream().mapToLong(c -> c.getIsEnabled() ? 1 : 0).sum();
-        
-        // Note: Plugin statistics would need to be calculated from Plugin repository
-        long totalPlugins = 0;
-        long activePlugins = 0;
+        long totalBots = botRepository.count();
+        long activeBots = botRepository.countByIsActiveTrue();
+        long totalCommands = commandRepository.count();
+        long activeCommands = commandRepository.countByIsEnabledTrue();
+        long totalPlugins = pluginRepository.count();
+        long activePlugins = pluginRepository.countByIsActiveTrue();
+        ExecutionStatistics.Snapshot executions = executionStatistics.getOverallStatistics();
 
         return new AllBotsStatistics() {
             @Override
@@ -369,22 +396,37 @@ public class BotManagementService implements BotManagementUseCase {
 
             @Override
             public long getTotalExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.totalExecutions();
             }
 
             @Override
             public long getSuccessfulExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.successfulExecutions();
             }
 
             @Override
             public long getFailedExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.failedExecutions();
             }
 
             @Override
             public double getAverageSuccessRate() {
-                return 0.0; // Would be calculated from CommandExecution repository
+                return executions.successRate();
+            }
+
+            @Override
+            public long getP50ExecutionTime() {
+                return executions.p50ExecutionTimeMs();
+            }
+
+            @Override
+            public long getP95ExecutionTime() {
+                return executions.p95ExecutionTimeMs();
+            }
+
+            @Override
+            public long getP99ExecutionTime() {
+                return executions.p99ExecutionTimeMs();
             }
 
             @Override
@@ -411,11 +453,7 @@ public class BotManagementService implements BotManagementUseCase {
         return botHistoryRepository.findByBotIdOrderByTimestampDesc(botId, pageable);
     }
 
-    private CommandHandler findCommandHandler(CommandRequest request, Command command) {
-        return commandHandlers.stream()
-                .filter(handler -> handler.canHandle(request))
-                .filter(CommandHandler::isAvailable)
-                .min((h1, h2) -> Integer.compare(h1.getPriority(), h2.getPriority()))
-                .orElse(null);
+    private CommandHandler findCommandHandler(CommandContext context) {
+        return commandDispatchTable.select(context);
     }
 }
@@ -1,15 +1,21 @@
 package com.vuog.telebotmanager.application.service;
 
 import com.vuog.telebotmanager.domain.entity.Bot;
+import com.vuog.telebotmanager.domain.entity.BotHistory;
 import com.vuog.telebotmanager.domain.entity.BotRuntimeState;
 import com.vuog.telebotmanager.domain.repository.BotRepository;
 import com.vuog.telebotmanager.domain.repository.BotRuntimeStateRepository;
+import com.vuog.telebotmanager.infrastructure.persistence.BotHistoryBatchWriter;
 import com.vuog.telebotmanager.infrastructure.telegram.TelegramBotService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Service for orchestrating bot lifecycle operations
  * Coordinates between BotLifecycleService and TelegramBotService to avoid circular dependencies
@@ -24,10 +30,14 @@ public class BotOrchestrationService {
     private final BotRuntimeStateRepository botRuntimeStateRepository;
     private final BotLifecycleService botLifecycleService;
     private final TelegramBotService telegramBotService;
+    private final BotHistoryBatchWriter botHistoryBatchWriter;
 
     /**
      * Start a bot with full lifecycle management
+     * Not transactional as a whole, so no connection is held while the Telegram handshake waits;
+     * each database step commits on its own.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Bot startBot(Long botId) {
         log.info("Starting bot with full lifecycle for bot ID: {}", botId);
 
@@ -75,7 +85,9 @@ public class BotOrchestrationService {
 
     /**
      * Stop a bot with full lifecycle management
+     * Not transactional as a whole, since stopping waits for the polling connection to close.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Bot stopBot(Long botId) {
         log.info("Stopping bot with full lifecycle for bot ID: {}", botId);
 
@@ -123,24 +135,43 @@ public class BotOrchestrationService {
     /**
      * Restart a bot with full lifecycle management
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Bot restartBot(Long botId) {
         log.info("Restarting bot with full lifecycle for bot ID: {}", botId);
 
+        // Stopping waits for the polling connection to close, so the bot can start again right away
         stopBot(botId);
-        
-        // Wait for Telegram API to fully process the bot stop before restarting
-        // This prevents 409 conflicts when restarting bots
-        try {
-            log.info("Waiting for bot stop to fully propagate to Telegram API...");
-            Thread.sleep(2000); // Wait 2 seconds for Telegram to process
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Interrupted while waiting for bot restart");
-        }
-        
         return startBot(botId);
     }
 
+    /**
+     * Mark all active bots as suspended so they are restored on next startup
+     * Bots, runtime states and history are written in one transaction with batched statements.
+     */
+    public int suspendActiveBots(String notes) {
+        List<Bot> activeBots = botRepository.findByStatus(Bot.BotStatus.ACTIVE);
+        if (activeBots.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BotHistory> history = activeBots.stream()
+                .map(bot -> BotHistory.createStatusChange(bot, bot.getStatus(), Bot.BotStatus.SUSPENDED, "System", notes))
+                .toList();
+        activeBots.forEach(Bot::suspended);
+        botRepository.saveAll(activeBots);
+
+        List<BotRuntimeState> states = botRuntimeStateRepository.findAllById(activeBots.stream().map(Bot::getId).toList());
+        states.forEach(state -> {
+            state.setIsRunning(false);
+            state.setLastStoppedAt(now);
+        });
+        botRuntimeStateRepository.saveAll(states);
+
+        botHistoryBatchWriter.insertAll(history);
+        return activeBots.size();
+    }
+
     /**
      * Get bot status with full lifecycle information
      */
@@ -0,0 +1,114 @@
+package com.vuog.telebotmanager.application.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service for running bot restarts in the background
+ * Handles restart jobs so callers get a job handle instead of blocking on the restart
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BotRestartJobService {
+
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+
+    private final BotOrchestrationService botOrchestrationService;
+
+    private final Map<String, RestartJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, RestartJob> runningJobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bot-restart-", 0).factory());
+
+    /**
+     * Start restarting a bot in the background
+     * Returns the running job if the bot is already being restarted
+     */
+    public RestartJob restartBotAsync(Long botId) {
+        evictFinishedJobs();
+
+        RestartJob[] created = new RestartJob[1];
+        RestartJob job = runningJobs.computeIfAbsent(botId, id -> {
+            created[0] = RestartJob.builder()
+                    .jobId(UUID.randomUUID().toString())
+                    .botId(id)
+                    .status(RestartStatus.PENDING)
+                    .submittedAt(LocalDateTime.now())
+                    .build();
+            return created[0];
+        });
+
+        if (created[0] != null) {
+            jobs.put(job.getJobId(), job);
+            executor.execute(() -> run(job));
+            log.info("Restart job {} submitted for bot {}", job.getJobId(), botId);
+        }
+        return job;
+    }
+
+    /**
+     * Get a restart job by ID
+     */
+    public Optional<RestartJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(RestartJob job) {
+        job.setStatus(RestartStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        try {
+            botOrchestrationService.restartBot(job.getBotId());
+            job.setStatus(RestartStatus.COMPLETED);
+        } catch (Exception e) {
+            log.error("Restart job {} failed for bot {}", job.getJobId(), job.getBotId(), e);
+            job.setError(e.getMessage());
+            job.setStatus(RestartStatus.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+            runningJobs.remove(job.getBotId(), job);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Restart job status
+     */
+    public enum RestartStatus {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * Restart job information
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class RestartJob {
+        private String jobId;
+        private Long botId;
+        private volatile RestartStatus status;
+        private volatile String error;
+        private LocalDateTime submittedAt;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+    }
+}
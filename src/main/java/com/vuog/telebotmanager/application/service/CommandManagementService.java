@@ -6,12 +6,14 @@ import com.vuog.telebotmanager.application.specification.CommandSpecification;
 import com.vuog.telebotmanager.application.usecase.CommandManagementUseCase;
 import com.vuog.telebotmanager.domain.entity.Bot;
 import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.event.CommandsChangedEvent;
 import com.vuog.telebotmanager.domain.repository.BotRepository;
 import com.vuog.telebotmanager.domain.repository.CommandRepository;
 import com.vuog.telebotmanager.domain.service.CommandHandler;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
 import com.vuog.telebotmanager.infrastructure.service.CommandRouter;
+import com.vuog.telebotmanager.infrastructure.service.ExecutionStatistics;
 import com.vuog.telebotmanager.presentation.dto.query.CommandQuery;
 import com.vuog.telebotmanager.presentation.dto.request.CreateCommandRequest;
 import com.vuog.telebotmanager.presentation.dto.request.UpdateCommandRequest;
@@ -19,6 +21,7 @@ import com.vuog.telebotmanager.infrastructure.config.AppSettings;
 import com.vuog.telebotmanager.application.service.PermissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -45,6 +48,8 @@ public class CommandManagementService implements CommandManagementUseCase {
     private final CommandRouter commandRouter;
     private final AppSettings appSettings;
     private final PermissionService permissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutionStatistics executionStatistics;
 
     @Override
     public Command createCommand(CreateCommandRequest request) {
@@ -77,6 +82,7 @@ public class CommandManagementService implements CommandManagementUseCase {
         }
 
         Command savedCommand = commandRepository.save(newCommand);
+        publishCommandsChanged(savedCommand);
 
         log.info("Command created successfully with ID: {}", savedCommand.getId());
         return savedCommand;
@@ -114,6 +120,7 @@ public class CommandManagementService implements CommandManagementUseCase {
         }
 
         Command updatedCommand = commandRepository.save(command);
+        publishCommandsChanged(updatedCommand);
 
         log.info("Command updated successfully with ID: {}", updatedCommand.getId());
         return updatedCommand;
@@ -129,6 +136,7 @@ public class CommandManagementService implements CommandManagementUseCase {
         command.enable();
 
         Command enabledCommand = commandRepository.save(command);
+        publishCommandsChanged(enabledCommand);
 
         log.info("Command enabled successfully with ID: {}", enabledCommand.getId());
         return enabledCommand;
@@ -144,6 +152,7 @@ public class CommandManagementService implements CommandManagementUseCase {
         command.disable();
 
         Command disabledCommand = commandRepository.save(command);
+        publishCommandsChanged(disabledCommand);
 
         log.info("Command disabled successfully with ID: {}", disabledCommand.getId());
         return disabledCommand;
@@ -157,6 +166,8 @@ public class CommandManagementService implements CommandManagementUseCase {
                 .orElseThrow(() -> new IllegalArgumentException("Command not found with ID: " + commandId));
 
         commandRepository.delete(command);
+        executionStatistics.removeCommand(commandId);
+        publishCommandsChanged(command);
 
         log.info("Command deleted successfully with ID: {}", commandId);
     }
@@ -272,7 +283,7 @@ public class CommandManagementService implements CommandManagementUseCase {
         Command command = commandRepository.findById(commandId)
                 .orElseThrow(() -> new IllegalArgumentException("Command not found with ID: " + commandId));
 
-        // Note: CommandExecution statistics would need to be calculated from CommandExecution repository
+        ExecutionStatistics.Snapshot executions = executionStatistics.getCommandStatistics(commandId);
 
         return new CommandStatistics() {
             @Override
@@ -287,32 +298,47 @@ public class CommandManagementService implements CommandManagementUseCase {
 
             @Override
             public long getTotalExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.totalExecutions();
             }
 
             @Override
             public long getSuccessfulExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.successfulExecutions();
             }
 
             @Override
             public long getFailedExecutions() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.failedExecutions();
             }
 
             @Override
             public double getSuccessRate() {
-                return 0.0; // Would be calculated from CommandExecution repository
+                return executions.successRate();
             }
 
             @Override
             public long getAverageExecutionTime() {
-                return 0; // Would be calculated from CommandExecution repository
+                return executions.averageExecutionTimeMs();
+            }
+
+            @Override
+            public long getP50ExecutionTime() {
+                return executions.p50ExecutionTimeMs();
+            }
+
+            @Override
+            public long getP95ExecutionTime() {
+                return executions.p95ExecutionTimeMs();
+            }
+
+            @Override
+            public long getP99ExecutionTime() {
+                return executions.p99ExecutionTimeMs();
             }
 
             @Override
             public String getLastExecution() {
-                return command.getUpdatedAt().toString();
+                return executions.lastExecutionAt() != null ? executions.lastExecutionAt().toString() : null;
             }
 
             @Override
@@ -322,6 +348,14 @@ public class CommandManagementService implements CommandManagementUseCase {
         };
     }
 
+    /**
+     * Notify the command index; it rebuilds the affected bot once the transaction commits
+     */
+    private void publishCommandsChanged(Command command) {
+        Long botId = command.getBot() != null ? command.getBot().getId() : null;
+        eventPublisher.publishEvent(new CommandsChangedEvent(botId));
+    }
+
     private CommandHandler findCommandHandler(CommandRequest request) {
         return commandHandlers.stream()
                 .filter(handler -> handler.canHandle(request))
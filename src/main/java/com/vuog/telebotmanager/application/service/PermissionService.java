@@ -1,25 +1,41 @@
 package com.vuog.telebotmanager.application.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.vuog.telebotmanager.domain.entity.UserAccess;
+import com.vuog.telebotmanager.domain.event.PermissionsChangedEvent;
 import com.vuog.telebotmanager.domain.repository.UserPermissionRepository;
+import com.vuog.telebotmanager.domain.valueobject.EffectivePermission;
 import com.vuog.telebotmanager.domain.valueobject.UserRole;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.Arrays;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 public class PermissionService {
 
+    private static final Duration PERMISSION_CACHE_TTL = Duration.ofMinutes(5);
+
     private final UserPermissionRepository userPermissionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Effective access per (user, bot); unknown users are cached as unregistered
+    private final Cache<PermissionKey, EffectivePermission> effectivePermissions = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(PERMISSION_CACHE_TTL)
+            .build();
+
+    // Bumped on every permission change; a load that started before the change is not cached
+    private final AtomicLong permissionsVersion = new AtomicLong();
 
     public boolean canCreateCommand(Long botId) {
         String userId = currentUserId(); // Keycloak ID if present
@@ -34,35 +50,61 @@ public class PermissionService {
     }
 
     public List<String> filterAllowedCommands(String userId, Long botId, List<String> commands) {
-        UserAccess perm = findEffectivePermission(userId, botId);
-        if (perm == null) return Collections.emptyList();
-        if (perm.getRole() != null && perm.getRole().atLeast(UserRole.MODERATOR)) return commands;
-        if (perm.getAllowedCommands() == null || perm.getAllowedCommands().isBlank()) return Collections.emptyList();
-        Set<String> allowed = Arrays.stream(perm.getAllowedCommands().split(","))
-                .map(String::trim)
-                .map(s -> s.toLowerCase(Locale.ROOT))
-                .collect(Collectors.toSet());
-        return commands.stream()
-                .filter(c -> allowed.contains(c.toLowerCase(Locale.ROOT)))
-                .collect(Collectors.toList());
+        EffectivePermission permission = getEffectivePermission(userId, botId);
+        return commands.stream().filter(permission::allows).toList();
+    }
+
+    /**
+     * Get the resolved access of a user on a bot, cached until the user's entries change
+     */
+    public EffectivePermission getEffectivePermission(String userId, Long botId) {
+        if (userId == null) return EffectivePermission.unregistered();
+        PermissionKey key = new PermissionKey(userId, botId);
+        EffectivePermission cached = effectivePermissions.getIfPresent(key);
+        if (cached != null) return cached;
+
+        long version = permissionsVersion.get();
+        EffectivePermission loaded = EffectivePermission.of(resolveEffectivePermission(userId, botId));
+        // Checked under the entry's lock, so an invalidation either sees the entry or the load sees its version
+        effectivePermissions.asMap().compute(key, (k, existing) -> permissionsVersion.get() == version ? loaded : existing);
+        return loaded;
     }
 
-    private UserAccess findEffectivePermission(String userId, Long botId) {
-        if (userId == null) return null;
-        // Try Telegram mapping first
-        if (botId != null) {
-            return userPermissionRepository.findFirstByTelegramUserIdAndBotId(userId, botId)
-                    .orElseGet(() -> userPermissionRepository.findFirstByTelegramUserIdAndBotIdIsNull(userId)
-                            .orElseGet(() -> userPermissionRepository.findFirstByUserIdAndBotId(userId, botId)
-                                    .orElseGet(() -> userPermissionRepository.findFirstByUserIdAndBotIdIsNull(userId).orElse(null))));
+    /**
+     * Resolve the cascade with one query
+     * Precedence: Telegram per bot, Telegram global, Keycloak per bot, Keycloak global
+     */
+    private UserAccess resolveEffectivePermission(String userId, Long botId) {
+        List<UserAccess> candidates = botId != null
+                ? userPermissionRepository.findEffectiveCandidates(userId, botId)
+                : userPermissionRepository.findGlobalEffectiveCandidates(userId);
+        return candidates.stream()
+                .min(Comparator.comparingInt((UserAccess p) -> cascadeRank(p, userId))
+                        .thenComparing(UserAccess::getId))
+                .orElse(null);
+    }
+
+    private int cascadeRank(UserAccess perm, String userId) {
+        int rank = userId.equals(perm.getTelegramUserId()) ? 0 : 2;
+        return perm.getBotId() == null ? rank + 1 : rank;
+    }
+
+    /**
+     * Drop cached entries of a user once the change is committed
+     * Global entries affect every bot, so all of the user's entries are dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionsChanged(PermissionsChangedEvent event) {
+        permissionsVersion.incrementAndGet();
+        if (event.userId() == null) {
+            effectivePermissions.invalidateAll();
+            return;
         }
-        return userPermissionRepository.findFirstByTelegramUserIdAndBotIdIsNull(userId)
-                .orElseGet(() -> userPermissionRepository.findFirstByUserIdAndBotIdIsNull(userId).orElse(null));
+        effectivePermissions.asMap().keySet().removeIf(key -> key.userId().equals(event.userId()));
     }
 
     public UserRole getEffectiveRole(String userId, Long botId) {
-        UserAccess perm = findEffectivePermission(userId, botId);
-        return perm != null ? perm.getRole() : UserRole.ANONYMOUS;
+        return getEffectivePermission(userId, botId).getRole();
     }
 
     public boolean hasRoleAtLeast(Long botId, UserRole role) {
@@ -77,10 +119,10 @@ public class PermissionService {
         return effective != null && effective.atLeast(role);
     }
 
-    public UserAccess registerIfAbsent(String telegramUserId, Long botId) {
+    public EffectivePermission registerIfAbsent(String telegramUserId, Long botId) {
         if (telegramUserId == null || telegramUserId.isBlank()) return null;
-        UserAccess existing = findEffectivePermission(telegramUserId, botId);
-        if (existing != null) return existing;
+        EffectivePermission existing = getEffectivePermission(telegramUserId, botId);
+        if (existing.isRegistered()) return existing;
         UserAccess p = UserAccess.builder()
                 .telegramUserId(telegramUserId)
                 .userId(null)
@@ -89,7 +131,9 @@ public class PermissionService {
                 .role(UserRole.ANONYMOUS)
                 .allowedCommands("")
                 .build();
-        return userPermissionRepository.save(p);
+        UserAccess saved = userPermissionRepository.save(p);
+        eventPublisher.publishEvent(new PermissionsChangedEvent(telegramUserId, botId));
+        return EffectivePermission.of(saved);
     }
 
     public String currentUserId() {
@@ -101,4 +145,7 @@ public class PermissionService {
         } catch (Exception ignored) {}
         return null;
     }
+
+    private record PermissionKey(String userId, Long botId) {
+    }
 }
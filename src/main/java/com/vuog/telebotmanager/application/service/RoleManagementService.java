@@ -1,29 +1,31 @@
 package com.vuog.telebotmanager.application.service;
 
 import com.vuog.telebotmanager.domain.entity.UserAccess;
+import com.vuog.telebotmanager.domain.event.PermissionsChangedEvent;
 import com.vuog.telebotmanager.domain.repository.UserPermissionRepository;
+import com.vuog.telebotmanager.domain.valueobject.EffectivePermission;
 import com.vuog.telebotmanager.domain.valueobject.UserRole;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
-import java.util.LinkedHashSet;
-import java.util.Locale;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RoleManagementService {
 
     private final UserPermissionRepository userPermissionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public UserAccess setRole(String userId, Long botId, UserRole role) {
         UserAccess perm = findOrCreate(userId, botId);
         perm.setRole(role);
-        return userPermissionRepository.save(perm);
+        UserAccess saved = userPermissionRepository.save(perm);
+        eventPublisher.publishEvent(new PermissionsChangedEvent(userId, botId));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -44,7 +46,9 @@ public class RoleManagementService {
             current.removeAll(update);
         }
         perm.setAllowedCommands(String.join(",", current));
-        return userPermissionRepository.save(perm);
+        UserAccess saved = userPermissionRepository.save(perm);
+        eventPublisher.publishEvent(new PermissionsChangedEvent(userId, botId));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -69,11 +73,6 @@ public class RoleManagementService {
     }
 
     private Set<String> parseCsv(String csv) {
-        if (csv == null || csv.isBlank()) return new LinkedHashSet<>();
-        return Arrays.stream(csv.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(s -> s.toLowerCase(Locale.ROOT))
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return EffectivePermission.parseCommands(csv);
     }
 }
@@ -134,6 +134,12 @@ public interface BotManagementUseCase {
 
         long getAverageExecutionTime();
 
+        long getP50ExecutionTime();
+
+        long getP95ExecutionTime();
+
+        long getP99ExecutionTime();
+
         String getLastActivity();
     }
 
@@ -157,6 +163,12 @@ public interface BotManagementUseCase {
 
         double getAverageSuccessRate();
 
+        long getP50ExecutionTime();
+
+        long getP95ExecutionTime();
+
+        long getP99ExecutionTime();
+
         long getTotalPlugins();
 
         long getActivePlugins();
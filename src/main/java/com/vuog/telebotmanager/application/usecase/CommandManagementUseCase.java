@@ -116,6 +116,12 @@ public interface CommandManagementUseCase {
 
         long getAverageExecutionTime();
 
+        long getP50ExecutionTime();
+
+        long getP95ExecutionTime();
+
+        long getP99ExecutionTime();
+
         String getLastExecution();
 
         boolean isEnabled();
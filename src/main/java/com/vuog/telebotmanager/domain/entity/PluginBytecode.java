@@ -0,0 +1,46 @@
+package com.vuog.telebotmanager.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain entity holding the compiled bytes of one class of a plugin
+ * Rows are keyed by a hash of the plugin source, so unchanged plugins are loaded without recompiling
+ */
+@Entity
+@Table(name = "plugin_bytecode")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PluginBytecode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "plugin_id", nullable = false)
+    private String pluginId;
+
+    @Column(name = "plugin_version", nullable = false)
+    private String pluginVersion;
+
+    @Column(name = "source_hash", nullable = false, length = 64)
+    private String sourceHash;
+
+    @Column(name = "class_name", nullable = false, length = 500)
+    private String className;
+
+    @Column(name = "bytecode", nullable = false, columnDefinition = "BYTEA")
+    private byte[] bytecode;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
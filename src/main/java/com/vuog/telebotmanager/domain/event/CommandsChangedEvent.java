@@ -0,0 +1,8 @@
+package com.vuog.telebotmanager.domain.event;
+
+/**
+ * Domain event published when stored commands change
+ * A null botId means a global command changed, which affects every bot
+ */
+public record CommandsChangedEvent(Long botId) {
+}
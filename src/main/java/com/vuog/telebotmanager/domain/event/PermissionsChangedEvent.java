@@ -0,0 +1,8 @@
+package com.vuog.telebotmanager.domain.event;
+
+/**
+ * Domain event published when a user's access entry changes
+ * The userId is the Keycloak or Telegram identifier the entry was stored under; a null botId means a global entry
+ */
+public record PermissionsChangedEvent(String userId, Long botId) {
+}
@@ -77,6 +77,16 @@ public interface BotRepository extends BaseRepository<Bot, Long>, BaseQueryRepos
      */
     long countByStatus(Bot.BotStatus status);
 
+    /**
+     * Count all bots
+     */
+    long count();
+
+    /**
+     * Count active bots
+     */
+    long countByIsActiveTrue();
+
     /**
      * Find bots with webhook URLs
      */
@@ -109,6 +109,11 @@ public interface CommandRepository extends JpaRepository<Command, Long>, BaseQue
      */
     long countByType(Command.CommandType type);
 
+    /**
+     * Count enabled commands
+     */
+    long countByIsEnabledTrue();
+
     /**
      * Count enabled commands by bot ID
      */
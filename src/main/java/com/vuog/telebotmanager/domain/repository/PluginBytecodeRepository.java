@@ -0,0 +1,29 @@
+package com.vuog.telebotmanager.domain.repository;
+
+import com.vuog.telebotmanager.domain.entity.PluginBytecode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for compiled plugin classes
+ */
+@Repository
+public interface PluginBytecodeRepository extends JpaRepository<PluginBytecode, Long> {
+
+    /**
+     * Find the compiled classes of a plugin source version
+     */
+    List<PluginBytecode> findByPluginIdAndSourceHash(String pluginId, String sourceHash);
+
+    /**
+     * Delete all compiled classes of a plugin
+     */
+    @Modifying
+    @Query("DELETE FROM PluginBytecode b WHERE b.pluginId = :pluginId")
+    int deleteByPluginId(@Param("pluginId") String pluginId);
+}
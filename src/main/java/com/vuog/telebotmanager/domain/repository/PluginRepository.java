@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -80,6 +81,12 @@ public interface PluginRepository extends JpaRepository<BotPlugin, String>, Base
     @Query("SELECT p FROM BotPlugin p WHERE p.status = 'DRAFT' AND p.sourceCode IS NOT NULL")
     List<BotPlugin> findPluginsNeedingCompilation();
 
+    /**
+     * Find plugins with source in any of the given statuses
+     */
+    @Query("SELECT p FROM BotPlugin p WHERE p.status IN :statuses AND p.sourceCode IS NOT NULL")
+    List<BotPlugin> findByStatusInWithSource(@Param("statuses") Collection<BotPlugin.PluginStatus> statuses);
+
     /**
      * Find plugins by type and status
      */
@@ -122,6 +129,11 @@ public interface PluginRepository extends JpaRepository<BotPlugin, String>, Base
     @Query("SELECT COUNT(p) FROM BotPlugin p WHERE p.type = :type AND p.isActive = true")
     long countActiveByType(@Param("type") BotPlugin.PluginType type);
 
+    /**
+     * Count active plugins
+     */
+    long countByIsActiveTrue();
+
     /**
      * Find plugins by author with pagination
      */
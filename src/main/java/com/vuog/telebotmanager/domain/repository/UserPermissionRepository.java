@@ -2,6 +2,8 @@ package com.vuog.telebotmanager.domain.repository;
 
 import com.vuog.telebotmanager.domain.entity.UserAccess;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,4 +15,17 @@ public interface UserPermissionRepository extends JpaRepository<UserAccess, Long
 
     Optional<UserAccess> findFirstByTelegramUserIdAndBotId(String telegramUserId, Long botId);
     Optional<UserAccess> findFirstByTelegramUserIdAndBotIdIsNull(String telegramUserId);
+
+    /**
+     * All entries that can apply to a user on a bot: Telegram or Keycloak ID, bot-specific or global
+     */
+    @Query("SELECT p FROM UserAccess p WHERE (p.telegramUserId = :userId OR p.userId = :userId) " +
+            "AND (p.botId = :botId OR p.botId IS NULL)")
+    List<UserAccess> findEffectiveCandidates(@Param("userId") String userId, @Param("botId") Long botId);
+
+    /**
+     * All global entries of a user by Telegram or Keycloak ID
+     */
+    @Query("SELECT p FROM UserAccess p WHERE (p.telegramUserId = :userId OR p.userId = :userId) AND p.botId IS NULL")
+    List<UserAccess> findGlobalEffectiveCandidates(@Param("userId") String userId);
 }
@@ -4,6 +4,7 @@ import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Domain service interface for AI operations
@@ -26,6 +27,16 @@ public interface AiService {
      */
     String summarizeText(String text, Map<String, Object> parameters);
 
+    /**
+     * Summarize text using AI, passing each generated chunk to onChunk as it arrives
+     * Returns the full summary; implementations without streaming deliver it as a single chunk.
+     */
+    default String summarizeText(String text, Map<String, Object> parameters, Consumer<String> onChunk) {
+        String result = summarizeText(text, parameters);
+        onChunk.accept(result);
+        return result;
+    }
+
     /**
      * Analyze text using AI
      */
@@ -36,11 +47,29 @@ public interface AiService {
      */
     String generateContent(String prompt, Map<String, Object> parameters);
 
+    /**
+     * Generate content using AI, passing each generated chunk to onChunk as it arrives
+     */
+    default String generateContent(String prompt, Map<String, Object> parameters, Consumer<String> onChunk) {
+        String result = generateContent(prompt, parameters);
+        onChunk.accept(result);
+        return result;
+    }
+
     /**
      * Answer question using AI
      */
     String answerQuestion(String question, String context, Map<String, Object> parameters);
 
+    /**
+     * Answer question using AI, passing each generated chunk to onChunk as it arrives
+     */
+    default String answerQuestion(String question, String context, Map<String, Object> parameters, Consumer<String> onChunk) {
+        String result = answerQuestion(question, context, parameters);
+        onChunk.accept(result);
+        return result;
+    }
+
     /**
      * Check if AI service is available
      */
@@ -0,0 +1,58 @@
+package com.vuog.telebotmanager.domain.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking variant of {@link AiService}
+ * Calls return immediately; the futures complete when the AI provider answers, or fail fast when it is saturated.
+ */
+public interface AsyncAiService {
+
+    /**
+     * Generate AI response for given prompt
+     */
+    CompletableFuture<String> generateResponse(String prompt, Map<String, Object> parameters);
+
+    /**
+     * Summarize text using AI
+     */
+    CompletableFuture<String> summarizeText(String text, Map<String, Object> parameters);
+
+    /**
+     * Summarize text using AI, passing each generated chunk to onChunk as it arrives
+     */
+    CompletableFuture<String> summarizeText(String text, Map<String, Object> parameters, Consumer<String> onChunk);
+
+    /**
+     * Analyze text using AI
+     */
+    CompletableFuture<Map<String, Object>> analyzeText(String text, Map<String, Object> parameters);
+
+    /**
+     * Generate content using AI
+     */
+    CompletableFuture<String> generateContent(String prompt, Map<String, Object> parameters);
+
+    /**
+     * Generate content using AI, passing each generated chunk to onChunk as it arrives
+     */
+    CompletableFuture<String> generateContent(String prompt, Map<String, Object> parameters, Consumer<String> onChunk);
+
+    /**
+     * Answer question using AI
+     */
+    CompletableFuture<String> answerQuestion(String question, String context, Map<String, Object> parameters);
+
+    /**
+     * Answer question using AI, passing each generated chunk to onChunk as it arrives
+     */
+    CompletableFuture<String> answerQuestion(String question, String context, Map<String, Object> parameters,
+                                             Consumer<String> onChunk);
+
+    /**
+     * Check if AI service is available
+     */
+    boolean isAvailable();
+}
@@ -1,9 +1,12 @@
 package com.vuog.telebotmanager.domain.service;
 
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Domain service interface for command handling
@@ -21,6 +24,17 @@ public interface CommandHandler {
      */
     CommandResponse execute(CommandRequest request);
 
+    /**
+     * Check if this handler can process the command using the already resolved context
+     * Handlers backed by stored commands should override this to avoid another lookup
+     */
+    default boolean canHandle(CommandContext context) { return canHandle(context.getRequest()); }
+
+    /**
+     * Execute the command using the already resolved context
+     */
+    default CommandResponse execute(CommandContext context) { return execute(context.getRequest()); }
+
     /**
      * Get the command type this handler supports
      */
@@ -40,4 +54,9 @@ public interface CommandHandler {
      * Optional: list of commands supported by this handler (for help/diagnostics)
      */
     default List<String> getSupportedCommands() { return Collections.emptyList(); }
+
+    /**
+     * Optional: stored command types this handler serves (used to build the dispatch table)
+     */
+    default Set<Command.CommandType> getSupportedCommandTypes() { return Collections.emptySet(); }
 }
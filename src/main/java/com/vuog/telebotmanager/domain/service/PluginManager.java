@@ -63,6 +63,11 @@ public interface PluginManager {
      */
     void clearAllPlugins();
 
+    /**
+     * Invoke a loaded plugin repeatedly without recording statistics, so its hot paths are compiled before real traffic
+     */
+    void warmUpPlugin(String pluginName, CommandRequest request, int iterations);
+
     /**
      * Plugin execution statistics
      */
@@ -75,10 +80,24 @@ public interface PluginManager {
 
         long getErrorCount();
 
+        long getRetryCount();
+
+        long getTimeoutCount();
+
         double getAverageExecutionTime();
 
+        long getP50ExecutionTime();
+
+        long getP99ExecutionTime();
+
+        long getMaxExecutionTime();
+
         long getLastExecutionTime();
 
-        void recordExecution(boolean b, long l);
+        void recordExecution(boolean success, long executionTimeMs);
+
+        void recordRetry();
+
+        void recordTimeout();
     }
 }
@@ -0,0 +1,43 @@
+package com.vuog.telebotmanager.domain.valueobject;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Value object carrying the dispatch state of a single command request
+ * The command is resolved once by the router and shared with every handler it consults
+ */
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class CommandContext {
+
+    private final CommandRequest request;
+    private final Long botId;
+
+    /**
+     * Stored command matching the request, or null for built-in/unknown commands
+     */
+    private final Command command;
+
+    /**
+     * Check if a stored command was resolved for the request
+     */
+    public boolean hasCommand() {
+        return command != null;
+    }
+
+    /**
+     * Get the type of the resolved command, or null if none was resolved
+     */
+    public Command.CommandType getCommandType() {
+        return command != null ? command.getType() : null;
+    }
+
+    /**
+     * Check if the resolved command is enabled and of the given type
+     */
+    public boolean isEnabledCommandOfType(Command.CommandType type) {
+        return command != null && command.getType() == type && Boolean.TRUE.equals(command.getIsEnabled());
+    }
+}
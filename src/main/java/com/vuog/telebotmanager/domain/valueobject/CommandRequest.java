@@ -18,6 +18,8 @@ import java.util.Map;
 @AllArgsConstructor
 public class CommandRequest {
 
+    private static final String DEFERRED_RESPONSE = "deferredResponse";
+
     private String commandId;
     private String botId;
     private String userId;
@@ -69,6 +71,20 @@ public class CommandRequest {
         return this;
     }
 
+    /**
+     * Let handlers answer with a pending response; the caller delivers it once its completion finishes
+     */
+    public CommandRequest allowDeferredResponse() {
+        return withMetadata(DEFERRED_RESPONSE, true);
+    }
+
+    /**
+     * Check if the caller accepts a pending response
+     */
+    public boolean isDeferredResponseAllowed() {
+        return Boolean.TRUE.equals(getMetadata(DEFERRED_RESPONSE, false));
+    }
+
     /**
      * Get parameter value with default
      */
@@ -1,5 +1,6 @@
 package com.vuog.telebotmanager.domain.valueobject;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Value object representing a command execution response
@@ -18,6 +20,8 @@ import java.util.Map;
 @AllArgsConstructor
 public class CommandResponse {
 
+    private static final String DELIVERED = "delivered";
+
     private String executionId;
     private String commandId;
     private String botId;
@@ -34,6 +38,12 @@ public class CommandResponse {
     private Long executionTimeMs;
     private Map<String, Object> metadata;
 
+    /**
+     * Final response of a handler that answers asynchronously; null for immediate responses
+     */
+    @JsonIgnore
+    private CompletableFuture<CommandResponse> completion;
+
     /**
      * Create a successful response
      */
@@ -60,6 +70,18 @@ public class CommandResponse {
                 .build();
     }
 
+    /**
+     * Create a pending response that completes with the final one
+     */
+    public static CommandResponse pending(String executionId, CompletableFuture<CommandResponse> completion) {
+        return CommandResponse.builder()
+                .executionId(executionId)
+                .success(true)
+                .completion(completion)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     /**
      * Create an error response
      */
@@ -111,6 +133,27 @@ public class CommandResponse {
         return success;
     }
 
+    /**
+     * Mark the response as already shown in the chat, e.g. by a streamed reply, so it is not sent again
+     */
+    public CommandResponse markDelivered() {
+        return withMetadata(DELIVERED, true);
+    }
+
+    /**
+     * Check if the response was already shown in the chat
+     */
+    public boolean isDelivered() {
+        return metadata != null && Boolean.TRUE.equals(metadata.get(DELIVERED));
+    }
+
+    /**
+     * Check if the final response is still being produced
+     */
+    public boolean isPending() {
+        return completion != null;
+    }
+
     /**
      * Check if response has error
      */
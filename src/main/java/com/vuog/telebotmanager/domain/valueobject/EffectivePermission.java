@@ -0,0 +1,88 @@
+package com.vuog.telebotmanager.domain.valueobject;
+
+import com.vuog.telebotmanager.domain.entity.UserAccess;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Value object holding a user's resolved access on a bot
+ * Allowed commands are parsed once into an immutable lowercase set, so checks don't touch the CSV string
+ */
+@Getter
+public final class EffectivePermission {
+
+    private static final EffectivePermission UNREGISTERED = new EffectivePermission(UserRole.ANONYMOUS, Set.of(), false);
+
+    private final UserRole role;
+    private final Set<String> allowedCommands;
+
+    /**
+     * False when no access entry exists for the user
+     */
+    private final boolean registered;
+
+    private EffectivePermission(UserRole role, Set<String> allowedCommands, boolean registered) {
+        this.role = role;
+        this.allowedCommands = allowedCommands;
+        this.registered = registered;
+    }
+
+    public static EffectivePermission of(UserAccess access) {
+        if (access == null) {
+            return UNREGISTERED;
+        }
+        UserRole role = access.getRole() != null ? access.getRole() : UserRole.ANONYMOUS;
+        return new EffectivePermission(role, Collections.unmodifiableSet(parseCommands(access.getAllowedCommands())), true);
+    }
+
+    public static EffectivePermission unregistered() {
+        return UNREGISTERED;
+    }
+
+    /**
+     * Check if the user may run a command; moderators and above may run all of them
+     */
+    public boolean allows(String command) {
+        if (!registered || command == null) {
+            return false;
+        }
+        if (role.atLeast(UserRole.MODERATOR)) {
+            return true;
+        }
+        if (allowedCommands.contains(command)) {
+            return true;
+        }
+        // Command names are nearly always lowercase; only fold case when they aren't
+        return hasUpperCase(command) && allowedCommands.contains(command.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Parse a comma-separated command list into trimmed lowercase names, keeping order
+     */
+    public static Set<String> parseCommands(String csv) {
+        Set<String> commands = new LinkedHashSet<>();
+        if (csv == null || csv.isBlank()) {
+            return commands;
+        }
+        for (String part : csv.split(",")) {
+            String name = part.trim();
+            if (!name.isEmpty()) {
+                commands.add(name.toLowerCase(Locale.ROOT));
+            }
+        }
+        return commands;
+    }
+
+    private static boolean hasUpperCase(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isUpperCase(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,10 +2,12 @@ package com.vuog.telebotmanager.infrastructure.command;
 
 import com.vuog.telebotmanager.domain.entity.Bot;
 import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.event.CommandsChangedEvent;
 import com.vuog.telebotmanager.domain.repository.BotRepository;
 import com.vuog.telebotmanager.domain.repository.CommandRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -21,6 +23,7 @@ public class DefaultBotCommands {
 
     private final BotRepository botRepository;
     private final CommandRepository commandRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create default commands for a bot
@@ -49,6 +52,7 @@ public class DefaultBotCommands {
         // Create settings command
         createSettingsCommand(bot);
 
+        eventPublisher.publishEvent(new CommandsChangedEvent(botId));
         log.info("Created default commands for bot: {}", botId);
     }
 
@@ -218,6 +222,7 @@ public class DefaultBotCommands {
         // Create analyze command
         createAnalyzeCommand(bot);
 
+        eventPublisher.publishEvent(new CommandsChangedEvent(botId));
         log.info("Created AI commands for bot: {}", botId);
     }
 
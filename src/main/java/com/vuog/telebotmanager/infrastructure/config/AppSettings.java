@@ -12,6 +12,7 @@ public class AppSettings {
     private BotDefaults botDefaults = new BotDefaults();
     private PluginDefaults pluginDefaults = new PluginDefaults();
     private SystemSettings system = new SystemSettings();
+    private TelegramSettings telegram = new TelegramSettings();
 
     @Getter
     @Setter
@@ -22,6 +23,18 @@ public class AppSettings {
         private int maxTokens;
         private int timeoutMs;
         private String apiKey;
+        private String baseUrl = "https://generativelanguage.googleapis.com";
+        private int httpPoolSize = 16;
+        private boolean streaming = true;
+        private boolean cacheEnabled = true;
+        private int cacheTtlSeconds = 3600;
+        private int cacheMaxEntries = 10000;
+        private boolean cacheRedisEnabled = false;
+        private boolean coalescingEnabled = true;
+        private int limiterInitialConcurrency = 8;
+        private int limiterMinConcurrency = 1;
+        private int limiterMaxConcurrency = 16;
+        private int limiterQueueCapacity = 64;
     }
 
     @Getter
@@ -30,6 +43,7 @@ public class AppSettings {
         private int timeoutSeconds;
         private int retryCount;
         private int priority;
+        private int restoreConcurrency = 8;
     }
 
     @Getter
@@ -38,6 +52,14 @@ public class AppSettings {
         private int timeoutSeconds;
         private int retryCount;
         private String security;
+        private int maxConcurrency = 4;
+        private int queueCapacity = 16;
+        private int breakerFailureThreshold = 5;
+        private int breakerOpenSeconds = 30;
+        private boolean preloadEnabled = true;
+        private int preloadConcurrency = 4;
+        private int warmupIterations = 0;
+        private int restoreWaitSeconds = 30;
     }
 
     @Getter
@@ -47,5 +69,29 @@ public class AppSettings {
         private int cacheTtlSeconds;
         private int maxCommandsPerBot;
         private int maxPluginsPerBot;
+        private int auditBufferCapacity = 10000;
+        private int auditBatchSize = 200;
+        private int auditFlushIntervalMs = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class TelegramSettings {
+        private String updateWorkerMode = "virtual";
+        private int updateWorkers = 64;
+        private int updateQueueCapacity = 1000;
+        private String pollingEngine = "shared";
+        private int pollingThreads = 4;
+        private int longPollTimeoutSeconds = 50;
+        private String webhookBaseUrl = "";
+        private int outboundBotPerSecond = 30;
+        private double outboundChatPerSecond = 1.0;
+        private int outboundGroupPerMinute = 20;
+        private int outboundMaxRetries = 3;
+        private int outboundQueueCapacity = 10000;
+        private int outboundEditIntervalMs = 1000;
+        private int stopTimeoutSeconds = 10;
+        private int conflictRetries = 6;
+        private int shutdownDrainSeconds = 20;
     }
 }
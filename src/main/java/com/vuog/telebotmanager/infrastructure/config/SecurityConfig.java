@@ -28,6 +28,7 @@ public class SecurityConfig {
                                         "/swagger-ui/**",
                                         "/actuator/**",
                                         "/ws/**",
+                                        "/telegram/webhook/**",
                                         "/error",
                                         "/favicon.ico"
                                 ).permitAll()
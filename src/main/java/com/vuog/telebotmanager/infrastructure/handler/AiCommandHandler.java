@@ -1,74 +1,198 @@
 package com.vuog.telebotmanager.infrastructure.handler;
 
 import com.vuog.telebotmanager.domain.entity.Command;
-import com.vuog.telebotmanager.domain.repository.CommandRepository;
-import com.vuog.telebotmanager.domain.service.AiService;
+import com.vuog.telebotmanager.domain.service.AsyncAiService;
 import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import com.vuog.telebotmanager.infrastructure.service.AiRequestCoalescer;
+import com.vuog.telebotmanager.infrastructure.service.AiResponseCache;
+import com.vuog.telebotmanager.infrastructure.service.CommandResolver;
+import com.vuog.telebotmanager.infrastructure.telegram.OutboundDispatcher;
+import com.vuog.telebotmanager.infrastructure.telegram.ProgressiveReply;
+import com.vuog.telebotmanager.infrastructure.util.HandlerUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Command handler for AI-powered commands
  * Handles AI_TASK, AI_ANSWER, SUMMARY, GENERATION, ANALYSIS command types
+ * Answers, summaries and generated content are streamed into the chat as a progressively edited message;
+ * responses are cached per command unless the command opts out, and concurrent identical requests share one call.
+ * Calls go through the async AI service; Telegram requests get a pending response, so workers never wait on the AI.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class AiCommandHandler implements CommandHandler {
 
-    private final AiService aiService;
-    private final CommandRepository commandRepository;
+    private final AsyncAiService aiService;
+    private final CommandResolver commandResolver;
+    private final OutboundDispatcher outboundDispatcher;
+    private final AppSettings appSettings;
+    private final AiResponseCache aiResponseCache;
+    private final AiRequestCoalescer aiRequestCoalescer;
+
+    private static final String STREAM_PLACEHOLDER = "⏳ Thinking...";
+    private static final String OP_ANSWER = "answer";
+    private static final String OP_SUMMARIZE = "summarize";
+    private static final String OP_GENERATE = "generate";
+    private static final String OP_ANALYZE = "analyze";
+    private static final String OP_RESPOND = "respond";
 
     @Override
     public boolean canHandle(CommandRequest request) {
-        // This handler can process AI-powered commands from the database
-        if (request.getCommand() == null || !request.getCommand().startsWith("/")) {
-            return false;
+        return canHandle(commandResolver.resolve(request));
+    }
+
+    @Override
+    public boolean canHandle(CommandContext context) {
+        // This handler processes AI-powered commands from the database
+        Command command = context.getCommand();
+        return command != null && command.isAiPowered() && command.getIsEnabled();
+    }
+
+    @Override
+    public CommandResponse execute(CommandRequest request) {
+        return execute(commandResolver.resolve(request));
+    }
+
+    @Override
+    public CommandResponse execute(CommandContext context) {
+        CommandRequest request = context.getRequest();
+        log.info("Executing AI command: {}", request.getCommand());
+
+        if (!aiService.isAvailable()) {
+            return CommandResponse.error(request.getCommandId(), "AI service is not available", "AI_SERVICE_UNAVAILABLE");
         }
 
-        // Try to find command in database
-        Long botId = null;
-        try {
-            if (request.getBotId() != null) {
-                botId = Long.valueOf(request.getBotId());
+        Duration cacheTtl = aiResponseCache.ttlOf(context.getCommand());
+        String requestKey = aiResponseCache.keyOf(context.getCommand(), operationOf(request.getCommand()),
+                request.getInputText(), request.getContext(), request.getParameters());
+        if (!cacheTtl.isZero()) {
+            Optional<String> cached = aiResponseCache.get(requestKey);
+            if (cached.isPresent()) {
+                return CommandResponse.success(request.getCommandId(), cached.get()).withMetadata("cached", true);
             }
-        } catch (Exception ignored) {
         }
 
-        if (botId != null) {
-            List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-            if (!commands.isEmpty()) {
-                Command command = commands.get(0);
-                // Handle AI type commands
-                return command.isAiPowered() && command.getIsEnabled();
+        AiRequestCoalescer.Flight flight = appSettings.getAi().isCoalescingEnabled() ? aiRequestCoalescer.begin(requestKey) : null;
+        boolean coalesced = flight != null && !flight.isLeader();
+        ProgressiveReply reply = null;
+        CompletableFuture<String> result = null;
+        try {
+            if (coalesced) {
+                // Followers give up after the AI timeout even if the leader's call never ends
+                result = flight.result().orTimeout(appSettings.getAi().getTimeoutMs(), TimeUnit.MILLISECONDS);
+            } else {
+                reply = openProgressiveReply(request);
+                CompletableFuture<String> call;
+                try {
+                    call = processAiCommand(request, reply != null ? reply::append : null);
+                } catch (RuntimeException e) {
+                    call = CompletableFuture.failedFuture(e);
+                }
+                result = call.whenComplete((text, error) -> {
+                    try {
+                        // Cache before releasing the flight so requests arriving after it find the entry
+                        if (error == null && !cacheTtl.isZero()) {
+                            aiResponseCache.put(requestKey, text, cacheTtl);
+                        }
+                    } finally {
+                        endFlight(flight, text, error);
+                    }
+                });
+            }
+        } finally {
+            // Never leave followers waiting on a flight whose call was not started
+            if (result == null) {
+                endFlight(flight, null, new IllegalStateException("AI request was aborted"));
             }
         }
 
-        return false;
+        ProgressiveReply streamedReply = reply;
+        CompletableFuture<CommandResponse> completion = result
+                .handle((text, error) -> toResponse(request, text, error, coalesced))
+                .thenCompose(response -> showInReply(response, streamedReply));
+        if (request.isDeferredResponseAllowed()) {
+            return CommandResponse.pending(request.getCommandId(), completion);
+        }
+        return completion.join();
     }
 
-    @Override
-    public CommandResponse execute(CommandRequest request) {
-        log.info("Executing AI command: {}", request.getCommand());
+    /**
+     * End the leader's flight with the call's outcome; a no-op for followers and uncoalesced requests
+     */
+    private static void endFlight(AiRequestCoalescer.Flight flight, String text, Throwable error) {
+        if (flight == null) {
+            return;
+        }
+        if (error == null) {
+            flight.complete(text);
+        } else {
+            flight.fail(error);
+        }
+    }
 
-        if (!aiService.isAvailable()) {
-            return CommandResponse.error(request.getCommandId(), "AI service is not available", "AI_SERVICE_UNAVAILABLE");
+    /**
+     * Build the final response of a call
+     */
+    private CommandResponse toResponse(CommandRequest request, String text, Throwable error, boolean coalesced) {
+        CommandResponse response;
+        if (error == null) {
+            response = CommandResponse.success(request.getCommandId(), text);
+            if (coalesced) {
+                response.withMetadata("coalesced", true);
+            }
+        } else {
+            Throwable cause = error;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof TimeoutException) {
+                log.warn("AI command timed out waiting for a shared request: {}", request.getCommand());
+                response = CommandResponse.error(request.getCommandId(), "AI service timed out, please try again later", "AI_SERVICE_TIMEOUT");
+            } else if (cause instanceof RejectedExecutionException) {
+                log.warn("AI service saturated, rejecting command: {}", request.getCommand());
+                response = CommandResponse.error(request.getCommandId(), "AI service is busy, please try again later", "AI_SERVICE_BUSY");
+            } else {
+                log.error("Error executing AI command: {}", request.getCommand(), cause);
+                response = CommandResponse.error(request.getCommandId(), "AI command execution failed: " + cause.getMessage(), "AI_EXECUTION_ERROR");
+            }
         }
+        return response;
+    }
 
-        try {
-            String responseText = processAiCommand(request);
-            return CommandResponse.success(request.getCommandId(), responseText);
-        } catch (Exception e) {
-            log.error("Error executing AI command: {}", request.getCommand(), e);
-            return CommandResponse.error(request.getCommandId(), "AI command execution failed: " + e.getMessage(), "AI_EXECUTION_ERROR");
+    /**
+     * Show the final response in the streamed reply, if there is one
+     * The response completes once the final edit is sent, so a deferred reply stays pending until then.
+     */
+    private static CompletableFuture<CommandResponse> showInReply(CommandResponse response, ProgressiveReply reply) {
+        if (reply == null) {
+            return CompletableFuture.completedFuture(response);
         }
+        return reply.complete(response.getResponseText()).handle((sent, error) -> {
+            if (error != null) {
+                log.warn("Final AI reply could not be shown: {}", error.getMessage());
+            }
+            // Never sent again as a separate message, the reply already tried that
+            response.markDelivered();
+            return response;
+        });
     }
 
     @Override
@@ -76,6 +200,12 @@ public class AiCommandHandler implements CommandHandler {
         return "AI_COMMAND";
     }
 
+    @Override
+    public java.util.Set<Command.CommandType> getSupportedCommandTypes() {
+        return java.util.Set.of(Command.CommandType.AI_TASK, Command.CommandType.AI_ANSWER,
+                Command.CommandType.SUMMARY, Command.CommandType.GENERATION, Command.CommandType.ANALYSIS);
+    }
+
     @Override
     public int getPriority() {
         return 100; // Lower priority for AI commands
@@ -86,24 +216,60 @@ public class AiCommandHandler implements CommandHandler {
         return aiService.isAvailable();
     }
 
-    private String processAiCommand(CommandRequest request) {
-        String command = request.getCommand();
-        String inputText = request.getInputText();
-        Map<String, Object> parameters = request.getParameters() != null ? request.getParameters() : new HashMap<>();
+    /**
+     * Open a streamed reply for commands that produce free text, when the request came from a running bot's chat
+     * Streaming can be turned off globally (ai.google.streaming) or per command with the parameter "stream": false.
+     */
+    private ProgressiveReply openProgressiveReply(CommandRequest request) {
+        String operation = operationOf(request.getCommand());
+        boolean streamable = operation.equals(OP_ANSWER) || operation.equals(OP_SUMMARIZE) || operation.equals(OP_GENERATE);
+        if (!streamable || !appSettings.getAi().isStreaming() || request.getChatId() == null
+                || !Boolean.parseBoolean(String.valueOf(request.getParameter("stream", true)))) {
+            return null;
+        }
+        Long botId = HandlerUtils.parseBotId(request);
+        if (botId == null || !outboundDispatcher.isRegistered(botId)) {
+            return null;
+        }
+        return outboundDispatcher.openProgressiveReply(botId, request.getChatId(), STREAM_PLACEHOLDER);
+    }
 
-        if (command.startsWith("/ai") || command.startsWith("/ask")) {
-            return aiService.answerQuestion(inputText, request.getContext(), parameters);
+    /**
+     * AI operation selected by the command name
+     */
+    private static String operationOf(String command) {
+        if (command == null) {
+            return OP_RESPOND;
+        } else if (command.startsWith("/ai") || command.startsWith("/ask")) {
+            return OP_ANSWER;
         } else if (command.startsWith("/summarize")) {
-            return aiService.summarizeText(inputText, parameters);
+            return OP_SUMMARIZE;
         } else if (command.startsWith("/generate")) {
-            return aiService.generateContent(inputText, parameters);
+            return OP_GENERATE;
         } else if (command.startsWith("/analyze")) {
-            Map<String, Object> analysis = aiService.analyzeText(inputText, parameters);
-            return formatAnalysisResult(analysis);
-        } else {
-            // Default AI response
-            return aiService.generateResponse(inputText, parameters);
+            return OP_ANALYZE;
         }
+        return OP_RESPOND;
+    }
+
+    private CompletableFuture<String> processAiCommand(CommandRequest request, Consumer<String> onChunk) {
+        String inputText = request.getInputText();
+        Map<String, Object> parameters = request.getParameters() != null ? request.getParameters() : new HashMap<>();
+
+        return switch (operationOf(request.getCommand())) {
+            case OP_ANSWER -> onChunk != null
+                    ? aiService.answerQuestion(inputText, request.getContext(), parameters, onChunk)
+                    : aiService.answerQuestion(inputText, request.getContext(), parameters);
+            case OP_SUMMARIZE -> onChunk != null
+                    ? aiService.summarizeText(inputText, parameters, onChunk)
+                    : aiService.summarizeText(inputText, parameters);
+            case OP_GENERATE -> onChunk != null
+                    ? aiService.generateContent(inputText, parameters, onChunk)
+                    : aiService.generateContent(inputText, parameters);
+            case OP_ANALYZE -> aiService.analyzeText(inputText, parameters).thenApply(this::formatAnalysisResult);
+            // Default AI response
+            default -> aiService.generateResponse(inputText, parameters);
+        };
     }
 
     private String formatAnalysisResult(Map<String, Object> analysis) {
@@ -1,17 +1,16 @@
 package com.vuog.telebotmanager.infrastructure.handler;
 
 import com.vuog.telebotmanager.domain.entity.Command;
-import com.vuog.telebotmanager.domain.repository.CommandRepository;
 import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.service.CommandResolver;
 import com.vuog.telebotmanager.infrastructure.util.TelegramUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 /**
  * Command handler for custom commands defined in the database
  * Handles CUSTOM command types by looking up the command in the database
@@ -22,61 +21,39 @@ import java.util.List;
 @Slf4j
 public class CustomCommandHandler implements CommandHandler {
 
-    private final CommandRepository commandRepository;
+    private final CommandResolver commandResolver;
 
     @Override
     public boolean canHandle(CommandRequest request) {
-        // This handler processes custom commands from the database with type CUSTOM
-        if (request.getCommand() == null || !request.getCommand().startsWith("/")) {
-            return false;
-        }
-
-        // Try to find command in database
-        Long botId = null;
-        try {
-            if (request.getBotId() != null) {
-                botId = Long.valueOf(request.getBotId());
-            }
-        } catch (Exception ignored) {
-        }
-
-        if (botId != null) {
-            List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-            if (!commands.isEmpty()) {
-                Command command = commands.get(0);
-                // Handle CUSTOM type commands (with or without response template)
-                return command.getType() == Command.CommandType.CUSTOM && command.getIsEnabled();
-            }
-        }
+        return canHandle(commandResolver.resolve(request));
+    }
 
-        return false;
+    @Override
+    public boolean canHandle(CommandContext context) {
+        // This handler processes custom commands from the database
+        return context.isEnabledCommandOfType(Command.CommandType.CUSTOM);
     }
 
     @Override
     public CommandResponse execute(CommandRequest request) {
+        return execute(commandResolver.resolve(request));
+    }
+
+    @Override
+    public CommandResponse execute(CommandContext context) {
+        CommandRequest request = context.getRequest();
         log.info("Executing custom command: {}", request.getCommand());
 
         try {
-            // Find command in database
-            Long botId = null;
-            try {
-                if (request.getBotId() != null) {
-                    botId = Long.valueOf(request.getBotId());
-                }
-            } catch (Exception ignored) {
-            }
-
-            if (botId == null) {
+            if (context.getBotId() == null) {
                 return CommandResponse.error(request.getCommandId(), "Bot ID is required", "BAD_REQUEST");
             }
 
-            List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-            if (commands.isEmpty()) {
+            Command command = context.getCommand();
+            if (command == null) {
                 return CommandResponse.error(request.getCommandId(), "Command not found", "COMMAND_NOT_FOUND");
             }
 
-            Command command = commands.get(0);
-
             // Check if command is enabled
             if (!command.getIsEnabled()) {
                 return CommandResponse.error(request.getCommandId(), "Command is disabled", "COMMAND_DISABLED");
@@ -100,6 +77,11 @@ public class CustomCommandHandler implements CommandHandler {
         return "CUSTOM_COMMAND";
     }
 
+    @Override
+    public java.util.Set<Command.CommandType> getSupportedCommandTypes() {
+        return java.util.Set.of(Command.CommandType.CUSTOM);
+    }
+
     @Override
     public int getPriority() {
         return 200; // Lower priority than AI and plugins, but higher than default
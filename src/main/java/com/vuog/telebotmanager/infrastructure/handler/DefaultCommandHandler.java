@@ -4,8 +4,9 @@ import com.vuog.telebotmanager.domain.service.CommandHandler;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
 import com.vuog.telebotmanager.domain.entity.Command;
-import com.vuog.telebotmanager.domain.repository.CommandRepository;
+import com.vuog.telebotmanager.domain.valueobject.EffectivePermission;
 import com.vuog.telebotmanager.application.service.PermissionService;
+import com.vuog.telebotmanager.infrastructure.service.CommandIndex;
 import com.vuog.telebotmanager.infrastructure.util.TelegramUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +21,7 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class DefaultCommandHandler implements CommandHandler {
 
-    private final CommandRepository commandRepository;
+    private final CommandIndex commandIndex;
     private final PermissionService permissionService;
 
     @Override
@@ -143,18 +144,19 @@ public class DefaultCommandHandler implements CommandHandler {
         // Built-in commands
         java.util.List<String> builtIns = java.util.List.of("/start", "/help", "/status", "/ping");
 
-        // Fetch bot-specific enabled commands
-        java.util.List<Command> botCommands = botId != null ? commandRepository.findEnabledCommandsByBotId(botId) : java.util.List.of();
-
-        // Filter by permission
-        java.util.List<String> allCommands = new java.util.ArrayList<>(builtIns);
-        for (Command c : botCommands) {
-            if (c.getCommand() != null && !c.getCommand().isBlank()) {
-                allCommands.add(c.getCommand());
+        // Filter built-ins and the bot's indexed commands by permission
+        EffectivePermission permission = permissionService.getEffectivePermission(userId, botId);
+        java.util.List<String> allowed = new java.util.ArrayList<>();
+        for (String builtIn : builtIns) {
+            if (permission.allows(builtIn)) {
+                allowed.add(builtIn);
+            }
+        }
+        for (Command c : commandIndex.getCommands(botId)) {
+            if (permission.allows(c.getCommand())) {
+                allowed.add(c.getCommand());
             }
         }
-
-        java.util.List<String> allowed = permissionService.filterAllowedCommands(userId, botId, allCommands);
 
         if (allowed.isEmpty()) {
             sb.append("No commands available for your account.");
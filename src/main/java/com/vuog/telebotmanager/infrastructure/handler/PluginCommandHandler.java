@@ -1,16 +1,16 @@
 package com.vuog.telebotmanager.infrastructure.handler;
 
 import com.vuog.telebotmanager.domain.entity.Command;
-import com.vuog.telebotmanager.domain.repository.CommandRepository;
 import com.vuog.telebotmanager.domain.service.CommandHandler;
 import com.vuog.telebotmanager.domain.service.PluginManager;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.service.CommandResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,60 +23,38 @@ import java.util.Map;
 public class PluginCommandHandler implements CommandHandler {
 
     private final PluginManager pluginManager;
-    private final CommandRepository commandRepository;
+    private final CommandResolver commandResolver;
 
     @Override
     public boolean canHandle(CommandRequest request) {
-        // This handler can process plugin commands from the database with type PLUGIN
-        if (request.getCommand() == null || !request.getCommand().startsWith("/")) {
-            return false;
-        }
-
-        // Try to find command in database
-        Long botId = null;
-        try {
-            if (request.getBotId() != null) {
-                botId = Long.valueOf(request.getBotId());
-            }
-        } catch (Exception ignored) {
-        }
-
-        if (botId != null) {
-            List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-            if (!commands.isEmpty()) {
-                Command command = commands.get(0);
-                // Handle PLUGIN type commands
-                return command.getType() == Command.CommandType.PLUGIN && command.getIsEnabled();
-            }
-        }
+        return canHandle(commandResolver.resolve(request));
+    }
 
-        return false;
+    @Override
+    public boolean canHandle(CommandContext context) {
+        // This handler processes plugin commands from the database
+        return context.isEnabledCommandOfType(Command.CommandType.PLUGIN);
     }
 
     @Override
     public CommandResponse execute(CommandRequest request) {
+        return execute(commandResolver.resolve(request));
+    }
+
+    @Override
+    public CommandResponse execute(CommandContext context) {
+        CommandRequest request = context.getRequest();
         log.info("Executing plugin command: {}", request.getCommand());
 
         try {
-            // Find command in database to get plugin name
-            Long botId = null;
-            try {
-                if (request.getBotId() != null) {
-                    botId = Long.valueOf(request.getBotId());
-                }
-            } catch (Exception ignored) {
-            }
-
-            if (botId == null) {
+            if (context.getBotId() == null) {
                 return CommandResponse.error(request.getCommandId(), "Bot ID is required", "BAD_REQUEST");
             }
 
-            List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-            if (commands.isEmpty()) {
+            Command command = context.getCommand();
+            if (command == null) {
                 return CommandResponse.error(request.getCommandId(), "Command not found", "COMMAND_NOT_FOUND");
             }
-
-            Command command = commands.get(0);
             
             // Get plugin name from command
             String pluginName = command.getPluginName();
@@ -105,6 +83,11 @@ public class PluginCommandHandler implements CommandHandler {
         return "PLUGIN_COMMAND";
     }
 
+    @Override
+    public java.util.Set<Command.CommandType> getSupportedCommandTypes() {
+        return java.util.Set.of(Command.CommandType.PLUGIN);
+    }
+
     @Override
     public int getPriority() {
         return 50; // Medium priority for plugin commands
@@ -1,17 +1,16 @@
 package com.vuog.telebotmanager.infrastructure.handler;
 
 import com.vuog.telebotmanager.domain.entity.Command;
-import com.vuog.telebotmanager.domain.repository.CommandRepository;
 import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.service.CommandResolver;
 import com.vuog.telebotmanager.infrastructure.util.TelegramUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 /**
  * Command handler for schedule-based commands
  * Handles SCHEDULE command type with task scheduling
@@ -21,58 +20,39 @@ import java.util.List;
 @Slf4j
 public class ScheduleCommandHandler implements CommandHandler {
 
-    private final CommandRepository commandRepository;
+    private final CommandResolver commandResolver;
 
     @Override
     public boolean canHandle(CommandRequest request) {
-        // This handler processes schedule commands from the database
-        if (request.getCommand() == null || !request.getCommand().startsWith("/")) {
-            return false;
-        }
-
-        Long botId = null;
-        try {
-            if (request.getBotId() != null) {
-                botId = Long.valueOf(request.getBotId());
-            }
-        } catch (Exception ignored) {
-        }
-
-        if (botId != null) {
-            List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-            if (!commands.isEmpty()) {
-                Command command = commands.get(0);
-                return command.getType() == Command.CommandType.SCHEDULE && command.getIsEnabled();
-            }
-        }
+        return canHandle(commandResolver.resolve(request));
+    }
 
-        return false;
+    @Override
+    public boolean canHandle(CommandContext context) {
+        // This handler processes schedule commands from the database
+        return context.isEnabledCommandOfType(Command.CommandType.SCHEDULE);
     }
 
     @Override
     public CommandResponse execute(CommandRequest request) {
+        return execute(commandResolver.resolve(request));
+    }
+
+    @Override
+    public CommandResponse execute(CommandContext context) {
+        CommandRequest request = context.getRequest();
         log.info("Executing schedule command: {}", request.getCommand());
 
         try {
-            Long botId = null;
-            try {
-                if (request.getBotId() != null) {
-                    botId = Long.valueOf(request.getBotId());
-                }
-            } catch (Exception ignored) {
-            }
-
-            if (botId == null) {
+            if (context.getBotId() == null) {
                 return CommandResponse.error(request.getCommandId(), "Bot ID is required", "BAD_REQUEST");
             }
 
-            List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-            if (commands.isEmpty()) {
+            Command command = context.getCommand();
+            if (command == null) {
                 return CommandResponse.error(request.getCommandId(), "Command not found", "COMMAND_NOT_FOUND");
             }
 
-            Command command = commands.get(0);
-
             if (!command.getIsEnabled()) {
                 return CommandResponse.error(request.getCommandId(), "Command is disabled", "COMMAND_DISABLED");
             }
@@ -96,6 +76,11 @@ public class ScheduleCommandHandler implements CommandHandler {
         return "SCHEDULE_COMMAND";
     }
 
+    @Override
+    public java.util.Set<Command.CommandType> getSupportedCommandTypes() {
+        return java.util.Set.of(Command.CommandType.SCHEDULE);
+    }
+
     @Override
     public int getPriority() {
         return 5; // High priority for scheduled tasks
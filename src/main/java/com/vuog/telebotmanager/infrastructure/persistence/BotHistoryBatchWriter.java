@@ -0,0 +1,46 @@
+package com.vuog.telebotmanager.infrastructure.persistence;
+
+import com.vuog.telebotmanager.domain.entity.BotHistory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Batch writer for bot history records
+ * BotHistory uses identity keys, which stops Hibernate from batching inserts, so bulk writes go through JDBC
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BotHistoryBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO bot_history "
+            + "(bot_id, previous_status, new_status, timestamp, notes, error_details, triggered_by) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert all records in one JDBC batch
+     */
+    public void insertAll(List<BotHistory> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, history) -> {
+            ps.setLong(1, history.getBot().getId());
+            ps.setString(2, history.getPreviousStatus().name());
+            ps.setString(3, history.getNewStatus().name());
+            ps.setTimestamp(4, Timestamp.valueOf(history.getTimestamp()));
+            ps.setString(5, history.getNotes());
+            ps.setString(6, history.getErrorDetails());
+            ps.setString(7, history.getTriggeredBy());
+        });
+        log.debug("Inserted {} bot history records", records.size());
+    }
+}
@@ -78,6 +78,11 @@ public interface JpaBotRepository extends JpaRepository<Bot, Long>, BotRepositor
     @Query("SELECT COUNT(b) FROM Bot b WHERE b.status = :status")
     long countByStatus(@Param("status") Bot.BotStatus status);
 
+    /**
+     * Count active bots
+     */
+    long countByIsActiveTrue();
+
     /**
      * Find bots with webhook URLs
      */
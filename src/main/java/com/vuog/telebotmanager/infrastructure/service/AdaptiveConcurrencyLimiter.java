@@ -0,0 +1,157 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Concurrency limiter that adapts its limit to upstream overload (AIMD)
+ * Each successful call while the limit is in use raises it by 1/limit, about one slot per round of calls;
+ * an overload signal halves it, at most once per round: signals from calls that started before the last
+ * decrease are ignored. Calls beyond the limit wait in a bounded queue and are rejected immediately once
+ * the queue is full.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final Executor executor;
+    private final Predicate<Throwable> overload;
+
+    private final Queue<Task<?>> waiting = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+    private double limit;
+    private int inFlight;
+    private long decreases;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int queueCapacity,
+                               Executor executor, Predicate<Throwable> overload) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.executor = executor;
+        this.overload = overload;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Run a call on the executor once a slot is free
+     * The future fails with RejectedExecutionException when all slots are busy and the queue is full.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Task<T> task = new Task<>(call, result);
+        synchronized (this) {
+            if (inFlight >= (int) limit) {
+                if (waiting.size() >= queueCapacity) {
+                    rejected.increment();
+                    result.completeExceptionally(new RejectedExecutionException("AI service is saturated"));
+                } else {
+                    waiting.add(task);
+                }
+                return result;
+            }
+            inFlight++;
+            task.startedAfter = decreases;
+        }
+        start(task);
+        return result;
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized int getQueued() {
+        return waiting.size();
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private <T> void run(Task<T> task) {
+        T value;
+        try {
+            value = task.call.get();
+        } catch (Throwable e) {
+            release(overload.test(e) ? Outcome.OVERLOAD : Outcome.IGNORED, task.startedAfter);
+            task.result.completeExceptionally(e);
+            return;
+        }
+        release(Outcome.SUCCESS, task.startedAfter);
+        task.result.complete(value);
+    }
+
+    private void release(Outcome outcome, long startedAfter) {
+        Queue<Task<?>> ready = new ArrayDeque<>();
+        synchronized (this) {
+            // Only grow while the limit is actually used, so an idle period does not inflate it
+            if (outcome == Outcome.SUCCESS && inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else if (outcome == Outcome.OVERLOAD && startedAfter == decreases) {
+                // Calls that started before the last decrease report the overload that decrease answered
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                decreases++;
+            }
+            inFlight--;
+            while (!waiting.isEmpty() && inFlight < (int) limit) {
+                Task<?> next = waiting.poll();
+                next.startedAfter = decreases;
+                ready.add(next);
+                inFlight++;
+            }
+        }
+        ready.forEach(this::start);
+    }
+
+    private void start(Task<?> task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; fail the call instead of leaving it pending
+            task.abort(e);
+        }
+    }
+
+    private final class Task<T> implements Runnable {
+
+        private final Supplier<T> call;
+        private final CompletableFuture<T> result;
+        /**
+         * Number of decreases before the call got its slot; guarded by the limiter
+         */
+        private long startedAfter;
+
+        private Task(Supplier<T> call, CompletableFuture<T> result) {
+            this.call = call;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            AdaptiveConcurrencyLimiter.this.run(this);
+        }
+
+        private void abort(Exception e) {
+            release(Outcome.IGNORED, startedAfter);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS, OVERLOAD, IGNORED
+    }
+}
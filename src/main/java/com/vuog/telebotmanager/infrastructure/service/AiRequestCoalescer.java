@@ -0,0 +1,102 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight layer for AI requests
+ * The first request for a key runs the upstream call; concurrent requests with the same key share its
+ * result instead of calling upstream themselves.
+ */
+@Component
+public class AiRequestCoalescer {
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public AiRequestCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("ai.coalescing.requests")
+                .description("AI requests by single-flight role")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("ai.coalescing.requests")
+                .description("AI requests by single-flight role")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("ai.coalescing.in_flight", inFlight, Map::size)
+                .description("Distinct AI requests in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start a request or join the one in flight for the same key
+     * The leader must end its flight with {@link Flight#complete} or {@link Flight#fail}.
+     */
+    public Flight begin(String key) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            followers.increment();
+            return new Flight(key, existing, false);
+        }
+        leaders.increment();
+        return new Flight(key, future, true);
+    }
+
+    /**
+     * A request's view of a shared upstream call
+     */
+    public final class Flight {
+
+        private final String key;
+        private final CompletableFuture<String> future;
+        private final boolean leader;
+
+        private Flight(String key, CompletableFuture<String> future, boolean leader) {
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        /**
+         * Check if this request runs the upstream call
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Result of the shared call; completes when the leader ends its flight
+         */
+        public CompletableFuture<String> result() {
+            return future.copy();
+        }
+
+        /**
+         * Hand the result to the waiting requests; later requests start a new call
+         */
+        public void complete(String result) {
+            if (leader) {
+                inFlight.remove(key, future);
+                future.complete(result);
+            }
+        }
+
+        /**
+         * Hand the failure to the waiting requests; later requests start a new call
+         */
+        public void fail(Throwable error) {
+            if (leader) {
+                inFlight.remove(key, future);
+                future.completeExceptionally(error);
+            }
+        }
+    }
+}
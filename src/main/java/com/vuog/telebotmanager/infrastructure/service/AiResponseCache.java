@@ -0,0 +1,220 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Two-tier cache of AI command responses
+ * Keys are derived from the command, the normalized prompt, the operation, the model and the generation settings.
+ * The in-process tier is bounded by size and TTL; the optional Redis tier shares entries across instances.
+ */
+@Component
+@Slf4j
+public class AiResponseCache {
+
+    private static final String REDIS_KEY_PREFIX = "ai:response:";
+    private static final Pattern LEADING_COMMAND = Pattern.compile("^/\\S+\\s*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AppSettings appSettings;
+    private final StringRedisTemplate redisTemplate;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    private volatile Cache<String, CachedResponse> local;
+
+    public AiResponseCache(AppSettings appSettings, StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.appSettings = appSettings;
+        this.redisTemplate = redisTemplate;
+        this.localHits = lookups(meterRegistry, "local", "hit");
+        this.redisHits = lookups(meterRegistry, "redis", "hit");
+        this.misses = lookups(meterRegistry, "none", "miss");
+        Gauge.builder("ai.cache.size", this, cache -> cache.local != null ? cache.local.estimatedSize() : 0)
+                .description("Entries in the in-process AI response cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * How long responses of a command are cached; zero if they are not cached
+     * Commands override the global setting with the parameters "cache" (boolean) and "cacheTtlSeconds".
+     */
+    public Duration ttlOf(Command command) {
+        AppSettings.AiSettings ai = appSettings.getAi();
+        JsonNode parameters = command != null ? command.getParameters() : null;
+        boolean enabled = parameters != null && parameters.has("cache")
+                ? parameters.get("cache").asBoolean(false)
+                : ai.isCacheEnabled();
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        long ttlSeconds = parameters != null && parameters.has("cacheTtlSeconds")
+                ? parameters.get("cacheTtlSeconds").asLong(ai.getCacheTtlSeconds())
+                : ai.getCacheTtlSeconds();
+        return Duration.ofSeconds(Math.max(0, ttlSeconds));
+    }
+
+    /**
+     * Cache key of an AI request to a command
+     * The prompt is normalized by removing the command prefix and collapsing whitespace; case is kept because
+     * generated or summarized text must follow the input's casing. Each command has its own entries, since commands
+     * sharing an operation may use different prompts. Unparseable generation settings count as the defaults.
+     */
+    public String keyOf(Command command, String operation, String input, String context, Map<String, Object> parameters) {
+        AppSettings.AiSettings ai = appSettings.getAi();
+        String material = String.join("\u0000",
+                command != null ? command.getType() + ":" + command.getId() + ":" + command.getCommand() : "",
+                operation,
+                String.valueOf(ai.getModel()),
+                String.valueOf(doubleParameter(parameters, "temperature", ai.getTemperature())),
+                String.valueOf(intParameter(parameters, "maxTokens", ai.getMaxTokens())),
+                String.valueOf(parameter(parameters, "maxLength", "")),
+                normalize(context),
+                normalize(LEADING_COMMAND.matcher(input != null ? input : "").replaceFirst("")));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look up a response, first in process, then in Redis
+     */
+    public Optional<String> get(String key) {
+        CachedResponse cached = local().getIfPresent(key);
+        if (cached != null) {
+            localHits.increment();
+            return Optional.of(cached.text());
+        }
+
+        if (appSettings.getAi().isCacheRedisEnabled()) {
+            try {
+                String redisKey = REDIS_KEY_PREFIX + key;
+                String text = redisTemplate.opsForValue().get(redisKey);
+                if (text != null) {
+                    Long ttlSeconds = redisTemplate.getExpire(redisKey);
+                    long ttl = ttlSeconds != null && ttlSeconds > 0 ? ttlSeconds : appSettings.getAi().getCacheTtlSeconds();
+                    local().put(key, new CachedResponse(text, Duration.ofSeconds(ttl).toNanos()));
+                    redisHits.increment();
+                    return Optional.of(text);
+                }
+            } catch (RuntimeException e) {
+                log.warn("AI response cache lookup in Redis failed: {}", e.getMessage());
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a response in both tiers
+     */
+    public void put(String key, String text, Duration ttl) {
+        if (text == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        local().put(key, new CachedResponse(text, ttl.toNanos()));
+
+        if (appSettings.getAi().isCacheRedisEnabled()) {
+            try {
+                redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key, text, ttl);
+            } catch (RuntimeException e) {
+                log.warn("AI response cache write to Redis failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * In-process tier, created on first use so the size limit comes from the loaded settings
+     */
+    private Cache<String, CachedResponse> local() {
+        Cache<String, CachedResponse> cache = local;
+        if (cache == null) {
+            synchronized (this) {
+                cache = local;
+                if (cache == null) {
+                    cache = Caffeine.newBuilder()
+                            .maximumSize(Math.max(1, appSettings.getAi().getCacheMaxEntries()))
+                            .expireAfter(new Expiry<String, CachedResponse>() {
+                                @Override
+                                public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                                    return value.ttlNanos();
+                                }
+
+                                @Override
+                                public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                                    return value.ttlNanos();
+                                }
+
+                                @Override
+                                public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                                    return currentDuration;
+                                }
+                            })
+                            .build();
+                    local = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static Object parameter(Map<String, Object> parameters, String name, Object defaultValue) {
+        Object value = parameters != null ? parameters.get(name) : null;
+        return value != null ? value : defaultValue;
+    }
+
+    private static double doubleParameter(Map<String, Object> parameters, String name, double defaultValue) {
+        try {
+            return Double.parseDouble(String.valueOf(parameter(parameters, name, defaultValue)).strip());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static int intParameter(Map<String, Object> parameters, String name, int defaultValue) {
+        try {
+            return Integer.parseInt(String.valueOf(parameter(parameters, name, defaultValue)).strip());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.strip()).replaceAll(" ");
+    }
+
+    private static Counter lookups(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("ai.cache.lookups")
+                .description("AI response cache lookups")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record CachedResponse(String text, long ttlNanos) {
+    }
+}
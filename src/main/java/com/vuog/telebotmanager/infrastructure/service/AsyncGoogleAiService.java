@@ -0,0 +1,147 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.service.AiService;
+import com.vuog.telebotmanager.domain.service.AsyncAiService;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous AI service backed by the Gemini implementation
+ * Calls run on virtual threads behind an adaptive concurrency limit that backs off when Gemini answers
+ * 429/503 or times out, and fails fast once the limit and its queue are full.
+ */
+@Service
+@Slf4j
+public class AsyncGoogleAiService implements AsyncAiService {
+
+    private final AiService aiService;
+    private final AppSettings appSettings;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-call-", 0).factory());
+
+    private volatile AdaptiveConcurrencyLimiter limiter;
+
+    public AsyncGoogleAiService(AiService aiService, AppSettings appSettings, MeterRegistry meterRegistry) {
+        this.aiService = aiService;
+        this.appSettings = appSettings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> parameters) {
+        return submit(() -> aiService.generateResponse(prompt, parameters));
+    }
+
+    @Override
+    public CompletableFuture<String> summarizeText(String text, Map<String, Object> parameters) {
+        return submit(() -> aiService.summarizeText(text, parameters));
+    }
+
+    @Override
+    public CompletableFuture<String> summarizeText(String text, Map<String, Object> parameters, Consumer<String> onChunk) {
+        return submit(() -> aiService.summarizeText(text, parameters, onChunk));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> analyzeText(String text, Map<String, Object> parameters) {
+        return submit(() -> aiService.analyzeText(text, parameters));
+    }
+
+    @Override
+    public CompletableFuture<String> generateContent(String prompt, Map<String, Object> parameters) {
+        return submit(() -> aiService.generateContent(prompt, parameters));
+    }
+
+    @Override
+    public CompletableFuture<String> generateContent(String prompt, Map<String, Object> parameters, Consumer<String> onChunk) {
+        return submit(() -> aiService.generateContent(prompt, parameters, onChunk));
+    }
+
+    @Override
+    public CompletableFuture<String> answerQuestion(String question, String context, Map<String, Object> parameters) {
+        return submit(() -> aiService.answerQuestion(question, context, parameters));
+    }
+
+    @Override
+    public CompletableFuture<String> answerQuestion(String question, String context, Map<String, Object> parameters,
+                                                    Consumer<String> onChunk) {
+        return submit(() -> aiService.answerQuestion(question, context, parameters, onChunk));
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return aiService.isAvailable();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return limiter().submit(call);
+    }
+
+    /**
+     * Limiter, created on first use so its bounds come from the loaded settings
+     */
+    private AdaptiveConcurrencyLimiter limiter() {
+        AdaptiveConcurrencyLimiter current = limiter;
+        if (current == null) {
+            synchronized (this) {
+                current = limiter;
+                if (current == null) {
+                    AppSettings.AiSettings ai = appSettings.getAi();
+                    current = new AdaptiveConcurrencyLimiter(ai.getLimiterInitialConcurrency(), ai.getLimiterMinConcurrency(),
+                            ai.getLimiterMaxConcurrency(), ai.getLimiterQueueCapacity(), executor, AsyncGoogleAiService::isOverload);
+                    bindMeters(current);
+                    limiter = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void bindMeters(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("ai.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit of concurrent AI calls")
+                .register(meterRegistry);
+        Gauge.builder("ai.limiter.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("AI calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("ai.limiter.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .description("AI calls waiting for a slot")
+                .register(meterRegistry);
+        FunctionCounter.builder("ai.limiter.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .description("AI calls rejected because the limit and queue were full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gemini rate limiting, overload and timeouts shrink the limit; other failures leave it unchanged
+     */
+    private static boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof GoogleAiService.GeminiApiException gemini) {
+                return gemini.isOverload();
+            }
+            if (cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
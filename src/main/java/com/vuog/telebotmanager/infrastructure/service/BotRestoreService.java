@@ -0,0 +1,183 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.application.service.BotOrchestrationService;
+import com.vuog.telebotmanager.domain.entity.Bot;
+import com.vuog.telebotmanager.domain.entity.BotHistory;
+import com.vuog.telebotmanager.domain.repository.BotRepository;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import com.vuog.telebotmanager.infrastructure.persistence.BotHistoryBatchWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for restoring suspended bots after startup
+ * Handles restores in the background with bounded parallelism and tracks per-bot progress
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BotRestoreService {
+
+    private final BotRepository botRepository;
+    private final BotOrchestrationService botOrchestrationService;
+    private final BotHistoryBatchWriter botHistoryBatchWriter;
+    private final AppSettings appSettings;
+
+    private final Map<Long, BotRestoreStatus> botStatuses = new ConcurrentHashMap<>();
+    private final AtomicInteger restored = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile RestoreState state = RestoreState.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * Start restoring all SUSPENDED bots in the background
+     * Returns false if a restore is already running
+     */
+    public synchronized boolean startRestore() {
+        if (state == RestoreState.RUNNING) {
+            return false;
+        }
+
+        List<Bot> suspendedBots = botRepository.findByStatus(Bot.BotStatus.SUSPENDED);
+        botStatuses.clear();
+        restored.set(0);
+        failed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        if (suspendedBots.isEmpty()) {
+            state = RestoreState.COMPLETED;
+            finishedAt = startedAt;
+            return true;
+        }
+
+        suspendedBots.forEach(bot -> botStatuses.put(bot.getId(), new BotRestoreStatus(bot.getId(), bot.getBotUsername())));
+        state = RestoreState.RUNNING;
+        Thread.ofVirtual().name("bot-restore").start(() -> restoreAll(suspendedBots));
+        return true;
+    }
+
+    /**
+     * Get a snapshot of the current restore progress
+     */
+    public RestoreProgress getProgress() {
+        return RestoreProgress.builder()
+                .state(state)
+                .total(botStatuses.size())
+                .restored(restored.get())
+                .failed(failed.get())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .bots(botStatuses.values().stream()
+                        .sorted(Comparator.comparing(BotRestoreStatus::getBotId))
+                        .toList())
+                .build();
+    }
+
+    private void restoreAll(List<Bot> bots) {
+        int concurrency = Math.max(1, appSettings.getBotDefaults().getRestoreConcurrency());
+        log.info("Restoring {} bot(s) with SUSPENDED status, {} at a time...", bots.size(), concurrency);
+
+        Queue<BotHistory> history = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().name("bot-restore-", 0).factory());
+        try {
+            CompletableFuture.allOf(bots.stream()
+                            .map(bot -> CompletableFuture.runAsync(() -> restore(bot, history), executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            botHistoryBatchWriter.insertAll(List.copyOf(history));
+        } catch (Exception e) {
+            log.warn("Failed to save restore history: {}", e.getMessage());
+        }
+
+        finishedAt = LocalDateTime.now();
+        state = RestoreState.COMPLETED;
+        log.info("Bot restore finished: {} restored, {} failed", restored.get(), failed.get());
+    }
+
+    private void restore(Bot bot, Queue<BotHistory> history) {
+        BotRestoreStatus status = botStatuses.get(bot.getId());
+        status.setState(BotRestoreState.RUNNING);
+        long start = System.currentTimeMillis();
+        try {
+            botOrchestrationService.startBot(bot.getId());
+            status.setState(BotRestoreState.RESTORED);
+            restored.incrementAndGet();
+
+            // Create history record for bot restore
+            history.add(BotHistory.createStatusChange(
+                    bot, Bot.BotStatus.SUSPENDED, Bot.BotStatus.ACTIVE, "System", "Bot restored on application startup"));
+        } catch (Exception e) {
+            log.error("Failed to restore suspended bot {}: {}", bot.getId(), e.getMessage());
+            status.setState(BotRestoreState.FAILED);
+            status.setError(e.getMessage());
+            failed.incrementAndGet();
+
+            // Create history record for restoration failure
+            history.add(BotHistory.createErrorRecord(
+                    bot, bot.getStatus(), "Failed to restore bot on startup: " + e.getMessage(), "System"));
+        } finally {
+            status.setDurationMs(System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Overall restore state
+     */
+    public enum RestoreState {
+        IDLE, RUNNING, COMPLETED
+    }
+
+    /**
+     * Restore state of a single bot
+     */
+    public enum BotRestoreState {
+        PENDING, RUNNING, RESTORED, FAILED
+    }
+
+    /**
+     * Restore status of a single bot
+     */
+    @lombok.Data
+    public static class BotRestoreStatus {
+        private final Long botId;
+        private final String botUsername;
+        private volatile BotRestoreState state = BotRestoreState.PENDING;
+        private volatile String error;
+        private volatile Long durationMs;
+    }
+
+    /**
+     * Restore progress information
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class RestoreProgress {
+        private RestoreState state;
+        private int total;
+        private int restored;
+        private int failed;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private List<BotRestoreStatus> bots;
+    }
+}
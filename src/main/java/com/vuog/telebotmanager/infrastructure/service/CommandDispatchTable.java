@@ -0,0 +1,137 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
+import com.vuog.telebotmanager.infrastructure.handler.DefaultCommandHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed handler lookup used by the command router
+ * Maps command types and built-in command names to priority-ordered handlers,
+ * falling back to the default handler when no candidate accepts the request.
+ */
+@Component
+@Slf4j
+public class CommandDispatchTable {
+
+    private static final CommandHandler[] NONE = new CommandHandler[0];
+    private static final Comparator<CommandHandler> BY_PRIORITY = Comparator.comparingInt(CommandHandler::getPriority);
+
+    private final DefaultCommandHandler fallback;
+    private final Map<Command.CommandType, CommandHandler[]> byType;
+    private final Map<String, CommandHandler[]> byName;
+
+    /**
+     * Handlers that declare neither types nor commands; consulted for every request
+     */
+    private final CommandHandler[] unkeyed;
+
+    public CommandDispatchTable(List<CommandHandler> handlers, DefaultCommandHandler defaultCommandHandler) {
+        this.fallback = defaultCommandHandler;
+
+        Map<Command.CommandType, List<CommandHandler>> types = new EnumMap<>(Command.CommandType.class);
+        Map<String, List<CommandHandler>> names = new HashMap<>();
+        List<CommandHandler> rest = new ArrayList<>();
+
+        for (CommandHandler handler : handlers) {
+            if (handler == defaultCommandHandler) {
+                continue;
+            }
+            boolean keyed = false;
+            for (Command.CommandType type : handler.getSupportedCommandTypes()) {
+                types.computeIfAbsent(type, t -> new ArrayList<>()).add(handler);
+                keyed = true;
+            }
+            for (String usage : handler.getSupportedCommands()) {
+                String name = commandName(usage);
+                if (name != null) {
+                    List<CommandHandler> list = names.computeIfAbsent(name, n -> new ArrayList<>());
+                    if (!list.contains(handler)) {
+                        list.add(handler);
+                    }
+                    keyed = true;
+                }
+            }
+            if (!keyed) {
+                rest.add(handler);
+            }
+        }
+
+        this.unkeyed = sorted(rest);
+
+        // Unkeyed handlers join every type entry so priorities are honoured against them as well
+        Map<Command.CommandType, CommandHandler[]> typeTable = new EnumMap<>(Command.CommandType.class);
+        types.forEach((type, list) -> {
+            List<CommandHandler> candidates = new ArrayList<>(list);
+            candidates.addAll(rest);
+            typeTable.put(type, sorted(candidates));
+        });
+        this.byType = typeTable;
+
+        Map<String, CommandHandler[]> nameTable = new HashMap<>();
+        names.forEach((name, list) -> nameTable.put(name, sorted(list)));
+        this.byName = Map.copyOf(nameTable);
+
+        log.info("Command dispatch table built: {} types, {} built-in commands, {} unkeyed handlers",
+                byType.size(), byName.size(), unkeyed.length);
+    }
+
+    /**
+     * Select the handler for a resolved request
+     * Candidates of the command type and of the command name are tried in priority order;
+     * availability is checked here so toggling a handler needs no rebuild.
+     */
+    public CommandHandler select(CommandContext context) {
+        Command.CommandType type = context.getCommandType();
+        CommandHandler[] typeCandidates = type != null ? byType.getOrDefault(type, unkeyed) : unkeyed;
+        String command = context.getRequest().getCommand();
+        CommandHandler[] nameCandidates = command != null ? byName.getOrDefault(command, NONE) : NONE;
+
+        // Merge the two priority-ordered arrays
+        int i = 0;
+        int j = 0;
+        while (i < typeCandidates.length || j < nameCandidates.length) {
+            CommandHandler next;
+            if (j >= nameCandidates.length
+                    || (i < typeCandidates.length && typeCandidates[i].getPriority() <= nameCandidates[j].getPriority())) {
+                next = typeCandidates[i++];
+            } else {
+                next = nameCandidates[j++];
+            }
+            if (next.isAvailable() && next.canHandle(context)) {
+                return next;
+            }
+        }
+
+        return fallback.isAvailable() ? fallback : null;
+    }
+
+    /**
+     * Extract the command name from a usage string such as "/admin role get <userId>"
+     */
+    private static String commandName(String usage) {
+        if (usage == null || usage.isBlank()) {
+            return null;
+        }
+        String trimmed = usage.trim();
+        int space = trimmed.indexOf(' ');
+        String name = space > 0 ? trimmed.substring(0, space) : trimmed;
+        return name.startsWith("/") ? name : null;
+    }
+
+    private static CommandHandler[] sorted(List<CommandHandler> handlers) {
+        CommandHandler[] array = handlers.toArray(NONE);
+        Arrays.sort(array, BY_PRIORITY);
+        return array;
+    }
+}
@@ -0,0 +1,219 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.CommandExecution;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous audit writer for command executions
+ * Records are buffered in a bounded queue and flushed with JDBC batch inserts every interval or batch size,
+ * so the message path never waits on the database. Records are dropped, and counted, when the buffer is full.
+ */
+@Component
+@Slf4j
+public class CommandExecutionRecorder {
+
+    private static final String INSERT_SQL = "INSERT INTO command_executions "
+            + "(command_id, execution_id, status, input_data, output_data, error_message, execution_time_ms, "
+            + "started_at, completed_at, triggered_by, user_id, chat_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (execution_id) DO NOTHING";
+    private static final int MAX_TEXT_LENGTH = 4000;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppSettings appSettings;
+    private final Counter dropped;
+    private final Counter written;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("execution-audit").daemon(true).factory());
+    private volatile BlockingQueue<ExecutionRecord> buffer;
+
+    public CommandExecutionRecorder(JdbcTemplate jdbcTemplate, AppSettings appSettings, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.appSettings = appSettings;
+        this.dropped = Counter.builder("commands.executions.audit.dropped")
+                .description("Execution records dropped because the audit buffer was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("commands.executions.audit.written")
+                .description("Execution records written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an execution record; never blocks
+     */
+    public void record(ExecutionRecord record) {
+        BlockingQueue<ExecutionRecord> queue = buffer();
+        if (!queue.offer(record)) {
+            dropped.increment();
+            return;
+        }
+        if (queue.size() >= batchSize()) {
+            requestFlush();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Write whatever is left on the caller thread
+        flush();
+    }
+
+    /**
+     * Create the buffer and start the periodic flush on first use, after settings are loaded
+     */
+    private BlockingQueue<ExecutionRecord> buffer() {
+        BlockingQueue<ExecutionRecord> current = buffer;
+        if (current == null) {
+            synchronized (this) {
+                current = buffer;
+                if (current == null) {
+                    AppSettings.SystemSettings settings = appSettings.getSystem();
+                    current = new ArrayBlockingQueue<>(Math.max(1, settings.getAuditBufferCapacity()));
+                    long interval = Math.max(10, settings.getAuditFlushIntervalMs());
+                    flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+                    buffer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Queue one flush at a time; records arriving while it runs request the next one
+     */
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        } catch (Exception e) {
+            // Shutting down; the final flush picks the records up
+            flushRequested.set(false);
+        }
+    }
+
+    private void flush() {
+        BlockingQueue<ExecutionRecord> queue = buffer;
+        if (queue == null || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<ExecutionRecord> batch = new ArrayList<>(batchSize());
+            while (queue.drainTo(batch, batchSize()) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    private void write(List<ExecutionRecord> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), CommandExecutionRecorder::bind);
+            written.increment(batch.size());
+        } catch (Exception e) {
+            if (!isBatchFailure(e)) {
+                dropped.increment(batch.size());
+                log.warn("Failed to write {} execution records: {}", batch.size(), e.getMessage());
+                return;
+            }
+            // One bad row, e.g. of a command deleted meanwhile, must not cost the whole batch
+            log.debug("Batch insert of {} execution records failed, writing them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+        }
+    }
+
+    private void writeOne(ExecutionRecord record) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, record));
+            written.increment();
+        } catch (Exception e) {
+            dropped.increment();
+            log.warn("Failed to write execution record {}: {}", record.executionId(), e.getMessage());
+        }
+    }
+
+    private static void bind(PreparedStatement ps, ExecutionRecord r) throws SQLException {
+        ps.setLong(1, r.commandId());
+        ps.setString(2, r.executionId());
+        ps.setString(3, r.status().name());
+        ps.setString(4, truncate(r.inputData(), MAX_TEXT_LENGTH));
+        ps.setString(5, truncate(r.outputData(), MAX_TEXT_LENGTH));
+        ps.setString(6, truncate(r.errorMessage(), MAX_ERROR_LENGTH));
+        ps.setLong(7, r.executionTimeMs());
+        ps.setTimestamp(8, Timestamp.valueOf(r.startedAt()));
+        ps.setTimestamp(9, Timestamp.valueOf(r.completedAt()));
+        ps.setString(10, r.triggeredBy());
+        ps.setString(11, r.userId());
+        ps.setString(12, r.chatId());
+    }
+
+    private static boolean isBatchFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchUpdateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int batchSize() {
+        return Math.max(1, appSettings.getSystem().getAuditBatchSize());
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
+    /**
+     * Finished execution of a stored command
+     */
+    public record ExecutionRecord(Long commandId,
+                                  String executionId,
+                                  CommandExecution.ExecutionStatus status,
+                                  String inputData,
+                                  String outputData,
+                                  String errorMessage,
+                                  long executionTimeMs,
+                                  LocalDateTime startedAt,
+                                  LocalDateTime completedAt,
+                                  String triggeredBy,
+                                  String userId,
+                                  String chatId) {
+    }
+}
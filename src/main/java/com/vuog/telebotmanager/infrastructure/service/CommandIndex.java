@@ -0,0 +1,172 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.event.CommandsChangedEvent;
+import com.vuog.telebotmanager.domain.repository.CommandRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of enabled commands per bot
+ * Maps command name to a detached command snapshot, bot-specific commands overriding globals.
+ * Each bot's map is immutable and replaced as a whole when its commands change.
+ * Builds are stamped with a change counter, so a build that raced a committed change is redone.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommandIndex {
+
+    private final CommandRepository commandRepository;
+
+    private final Map<Long, StampedIndex> indexes = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Resolve an enabled command for a bot by name
+     */
+    public Optional<Command> resolve(Long botId, String command) {
+        if (botId == null || command == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(indexOf(botId).get(command));
+    }
+
+    /**
+     * Get all enabled commands visible to a bot, including global ones
+     */
+    public Collection<Command> getCommands(Long botId) {
+        return botId != null ? indexOf(botId).values() : List.of();
+    }
+
+    /**
+     * Get the commands of a bot only if its index is already built
+     */
+    public Collection<Command> getLoadedCommands(Long botId) {
+        StampedIndex index = indexes.get(botId);
+        return index != null ? index.commands().values() : List.of();
+    }
+
+    /**
+     * Rebuild the index of a bot from the database
+     * An older build never replaces a newer one; the query runs outside the map so other bots are not blocked.
+     */
+    public int rebuild(Long botId) {
+        Map<String, Command> index = load(botId);
+        log.debug("Rebuilt command index for bot {} with {} commands", botId, index.size());
+        return index.size();
+    }
+
+    /**
+     * Drop the index of a bot, e.g. when it is stopped
+     */
+    public void evict(Long botId) {
+        indexes.remove(botId);
+    }
+
+    /**
+     * Rebuild affected indexes once the change that triggered the event is committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCommandsChanged(CommandsChangedEvent event) {
+        // Builds that started before this point may predate the change and redo themselves
+        changes.incrementAndGet();
+        if (event.botId() != null) {
+            rebuild(event.botId());
+            return;
+        }
+
+        // Global command changed: every indexed bot sees it
+        for (Long botId : List.copyOf(indexes.keySet())) {
+            rebuild(botId);
+        }
+    }
+
+    private Map<String, Command> indexOf(Long botId) {
+        StampedIndex index = indexes.get(botId);
+        return index != null ? index.commands() : load(botId);
+    }
+
+    /**
+     * Build and install the index of a bot, keeping whichever of the installed and the new build is newer
+     * A change listener that ran while this build was in flight may have skipped the bot because it was not
+     * indexed yet, so the build is redone until no change committed during it.
+     */
+    private Map<String, Command> load(Long botId) {
+        while (true) {
+            long stamp = changes.get();
+            StampedIndex built = new StampedIndex(build(botId), stamp);
+            StampedIndex installed = indexes.merge(botId, built,
+                    (current, fresh) -> fresh.stamp() >= current.stamp() ? fresh : current);
+            if (changes.get() == stamp) {
+                return installed.commands();
+            }
+        }
+    }
+
+    private Map<String, Command> build(Long botId) {
+        // Ordered by priority; the first bot-specific match wins, otherwise the first global one
+        List<Command> combined = commandRepository.findEnabledCommandsByBotIdOrGlobal(botId);
+        Map<String, Command> byName = new LinkedHashMap<>();
+        Map<String, Boolean> botSpecific = new HashMap<>();
+
+        for (Command c : combined) {
+            String key = c.getCommand();
+            if (key == null || key.isBlank()) {
+                continue;
+            }
+            boolean isBotSpecific = c.getBot() != null;
+            Boolean existingIsBotSpecific = botSpecific.get(key);
+            if (existingIsBotSpecific == null || (!existingIsBotSpecific && isBotSpecific)) {
+                byName.put(key, snapshot(c));
+                botSpecific.put(key, isBotSpecific);
+            }
+        }
+
+        return Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Detached copy of the fields used during dispatch; associations are not carried
+     */
+    private Command snapshot(Command c) {
+        return Command.builder()
+                .id(c.getId())
+                .command(c.getCommand())
+                .responseTemplate(c.getResponseTemplate())
+                .isEnabled(c.getIsEnabled())
+                .description(c.getDescription())
+                .type(c.getType())
+                .trigger(c.getTrigger())
+                .category(c.getCategory())
+                .parameters(c.getParameters())
+                .pluginName(c.getPluginName())
+                .additionalConfig(c.getAdditionalConfig())
+                .priority(c.getPriority())
+                .timeoutSeconds(c.getTimeoutSeconds())
+                .retryCount(c.getRetryCount())
+                .createdAt(c.getCreatedAt())
+                .updatedAt(c.getUpdatedAt())
+                .createdBy(c.getCreatedBy())
+                .updatedBy(c.getUpdatedBy())
+                .build();
+    }
+
+    private record StampedIndex(Map<String, Command> commands, long stamp) {
+    }
+}
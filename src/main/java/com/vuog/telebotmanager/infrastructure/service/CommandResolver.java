@@ -0,0 +1,28 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
+import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
+import com.vuog.telebotmanager.infrastructure.util.HandlerUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the stored command for an incoming request
+ * Reads from the in-memory command index, so no query runs on the message path
+ */
+@Component
+@RequiredArgsConstructor
+public class CommandResolver {
+
+    private final CommandIndex commandIndex;
+
+    /**
+     * Resolve the request into a dispatch context
+     */
+    public CommandContext resolve(CommandRequest request) {
+        Long botId = HandlerUtils.parseBotId(request);
+        Command command = commandIndex.resolve(botId, request.getCommand()).orElse(null);
+        return CommandContext.of(request, botId, command);
+    }
+}
@@ -2,68 +2,115 @@ package com.vuog.telebotmanager.infrastructure.service;
 
 import com.vuog.telebotmanager.domain.entity.Bot;
 import com.vuog.telebotmanager.domain.entity.Command;
-import com.vuog.telebotmanager.domain.repository.CommandRepository;
+import com.vuog.telebotmanager.domain.entity.CommandExecution;
 import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Comparator;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
- * Deterministic command router that tries handlers in a fixed order:
- * Order now based on handler priority (ascending). First available handler that can handle the request will be used.
+ * Deterministic command router backed by a precomputed dispatch table
+ * Candidates for the command type and name are tried by priority (ascending), falling back to the default handler.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class CommandRouter {
 
-    private final List<CommandHandler> handlers;
+    private final CommandDispatchTable dispatchTable;
 
-    private final CommandRepository commandRepository;
+    private final CommandResolver commandResolver;
+
+    private final CommandExecutionRecorder executionRecorder;
+
+    private final ExecutionStatistics executionStatistics;
 
     public CommandResponse processCommand(Bot bot, CommandRequest request) {
         log.info("Processing command for bot {}: {}", bot != null ? bot.getBotUsername() : "<unknown>", request.getCommand());
         try {
-            // Try to find command in database first
-            Command dbCommand = null;
-            Long botId = null;
-            try {
-                if (request.getBotId() != null) botId = Long.valueOf(request.getBotId());
-            } catch (Exception ignored) {
-            }
-            
-            if (botId != null && request.getCommand() != null) {
-                // Resolve command from database - prefers bot-specific over global
-                List<Command> commands = commandRepository.resolveByBotOrGlobalAndCommand(botId, request.getCommand());
-                if (!commands.isEmpty()) {
-                    dbCommand = commands.get(0); // Get first match (prioritized by query)
-                    log.debug("Found command in DB for {}: {}", request.getCommand(), dbCommand.getId());
-                    
-                    // If command is disabled, return error
-                    if (!dbCommand.getIsEnabled()) {
-                        return CommandResponse.error(request.getCommandId(), 
-                            "Command is disabled", "COMMAND_DISABLED");
-                    }
-                }
+            // Resolve the stored command once; handlers read it from the context
+            CommandContext context = commandResolver.resolve(request);
+            Command dbCommand = context.getCommand();
+
+            // If command is disabled, return error
+            if (dbCommand != null && !dbCommand.getIsEnabled()) {
+                return CommandResponse.error(request.getCommandId(),
+                    "Command is disabled", "COMMAND_DISABLED");
             }
 
-            // Route by handler priority and capability
-            return handlers.stream()
-                    .sorted(Comparator.comparingInt(CommandHandler::getPriority))
-                    .filter(CommandHandler::isAvailable)
-                    .filter(h -> h.canHandle(request))
-                    .findFirst()
-                    .map(h -> h.execute(request))
-                    .orElseGet(() -> CommandResponse.error(request.getCommandId(), 
-                        "No handler could process the command", "NO_HANDLER"));
+            // Route through the precomputed dispatch table
+            CommandHandler handler = dispatchTable.select(context);
+            if (handler == null) {
+                return CommandResponse.error(request.getCommandId(),
+                    "No handler could process the command", "NO_HANDLER");
+            }
+            return executeAndRecord(handler, context);
         } catch (Exception e) {
             log.error("Error processing command: {}", request.getCommand(), e);
             return CommandResponse.error(request.getCommandId(), "Command processing failed: " + e.getMessage(), "COMMAND_ERROR");
         }
     }
+
+    /**
+     * Execute the handler, update the in-memory statistics and queue an audit record for stored commands
+     * Pending responses are recorded when they complete, so the timing covers the whole execution.
+     */
+    private CommandResponse executeAndRecord(CommandHandler handler, CommandContext context) {
+        LocalDateTime startedAt = context.hasCommand() ? LocalDateTime.now() : null;
+        long start = System.nanoTime();
+        CommandResponse response = null;
+        String error = null;
+        try {
+            response = handler.execute(context);
+            if (response != null && response.isPending()) {
+                response.getCompletion().whenComplete((done, failure) ->
+                        record(context, startedAt, start, done, failure != null ? failure.getMessage() : null));
+            }
+            return response;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            throw e;
+        } finally {
+            if (response == null || !response.isPending()) {
+                record(context, startedAt, start, response, error);
+            }
+        }
+    }
+
+    private void record(CommandContext context, LocalDateTime startedAt, long start, CommandResponse response, String error) {
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        boolean success = response != null && response.isSuccess();
+        Command command = context.getCommand();
+        executionStatistics.record(context.getBotId(), command != null ? command.getId() : null, success, elapsedMs);
+        if (command != null) {
+            if (error == null && response != null && !success) {
+                error = response.getErrorMessage();
+            }
+            executionRecorder.record(toRecord(context, startedAt, elapsedMs, success, response, error));
+        }
+    }
+
+    private CommandExecutionRecorder.ExecutionRecord toRecord(CommandContext context, LocalDateTime startedAt, long elapsedMs,
+                                                              boolean success, CommandResponse response, String error) {
+        CommandRequest request = context.getRequest();
+        return new CommandExecutionRecorder.ExecutionRecord(
+                context.getCommand().getId(),
+                request.getCommandId() != null ? request.getCommandId() : UUID.randomUUID().toString(),
+                success ? CommandExecution.ExecutionStatus.COMPLETED : CommandExecution.ExecutionStatus.FAILED,
+                request.getInputText(),
+                success ? response.getResponseText() : null,
+                error,
+                elapsedMs,
+                startedAt,
+                startedAt.plusNanos(elapsedMs * 1_000_000),
+                request.getTriggeredBy(),
+                request.getUserId(),
+                request.getChatId());
+    }
 }
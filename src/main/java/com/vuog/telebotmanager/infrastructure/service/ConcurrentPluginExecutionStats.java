@@ -0,0 +1,157 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.service.PluginManager;
+import com.vuog.telebotmanager.infrastructure.util.LatencyHistogram;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe execution statistics of a plugin
+ * Counters are striped and latencies go to a lock-free histogram, so concurrent executions never lose updates.
+ */
+class ConcurrentPluginExecutionStats implements PluginManager.PluginExecutionStats {
+
+    private final String pluginName;
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalExecutionTime = new LongAdder();
+    private final LongAccumulator maxExecutionTime = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile long lastExecutionTime;
+    private volatile List<Meter> meters = List.of();
+
+    ConcurrentPluginExecutionStats(String pluginName) {
+        this.pluginName = pluginName;
+    }
+
+    @Override
+    public void recordExecution(boolean success, long executionTimeMs) {
+        (success ? successCount : errorCount).increment();
+        totalExecutionTime.add(executionTimeMs);
+        maxExecutionTime.accumulate(executionTimeMs);
+        latency.record(executionTimeMs);
+        lastExecutionTime = executionTimeMs;
+    }
+
+    @Override
+    public void recordRetry() {
+        retryCount.increment();
+    }
+
+    @Override
+    public void recordTimeout() {
+        timeoutCount.increment();
+    }
+
+    @Override
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    @Override
+    public long getExecutionCount() {
+        return successCount.sum() + errorCount.sum();
+    }
+
+    @Override
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    @Override
+    public double getAverageExecutionTime() {
+        long count = getExecutionCount();
+        return count > 0 ? (double) totalExecutionTime.sum() / count : 0.0;
+    }
+
+    @Override
+    public long getP50ExecutionTime() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getP99ExecutionTime() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public long getMaxExecutionTime() {
+        return maxExecutionTime.get();
+    }
+
+    @Override
+    public long getLastExecutionTime() {
+        return lastExecutionTime;
+    }
+
+    /**
+     * Publish the statistics as meters tagged with the plugin name
+     */
+    ConcurrentPluginExecutionStats bindTo(MeterRegistry registry) {
+        meters = List.of(
+                FunctionCounter.builder("plugins.executions", successCount, LongAdder::sum)
+                        .description("Plugin executions")
+                        .tag("plugin", pluginName)
+                        .tag("outcome", "success")
+                        .register(registry),
+                FunctionCounter.builder("plugins.executions", errorCount, LongAdder::sum)
+                        .description("Plugin executions")
+                        .tag("plugin", pluginName)
+                        .tag("outcome", "error")
+                        .register(registry),
+                FunctionCounter.builder("plugins.execution.retries", retryCount, LongAdder::sum)
+                        .description("Plugin execution attempts that were retried")
+                        .tag("plugin", pluginName)
+                        .register(registry),
+                FunctionCounter.builder("plugins.execution.timeouts", timeoutCount, LongAdder::sum)
+                        .description("Plugin execution attempts that timed out")
+                        .tag("plugin", pluginName)
+                        .register(registry),
+                latencyGauge(registry, "0.5", ConcurrentPluginExecutionStats::getP50ExecutionTime),
+                latencyGauge(registry, "0.99", ConcurrentPluginExecutionStats::getP99ExecutionTime),
+                latencyGauge(registry, "max", ConcurrentPluginExecutionStats::getMaxExecutionTime));
+        return this;
+    }
+
+    /**
+     * Remove the meters published by {@link #bindTo(MeterRegistry)}
+     */
+    void unbind(MeterRegistry registry) {
+        meters.forEach(registry::remove);
+        meters = List.of();
+    }
+
+    private Gauge latencyGauge(MeterRegistry registry, String quantile,
+                               ToLongFunction<ConcurrentPluginExecutionStats> value) {
+        return Gauge.builder("plugins.execution.time", this, s -> value.applyAsLong(s))
+                .description("Plugin execution time in milliseconds")
+                .tag("plugin", pluginName)
+                .tag("quantile", quantile)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
@@ -23,22 +23,68 @@ public class ConfigurationLoaderService {
         appSettings.getAi().setMaxTokens(getInt("ai.google.max_tokens", 1000));
         appSettings.getAi().setTimeoutMs(getInt("ai.google.timeout", 30000));
         appSettings.getAi().setApiKey(getString("ai.google.api_key", ""));
+        appSettings.getAi().setBaseUrl(getString("ai.google.base_url", "https://generativelanguage.googleapis.com"));
+        appSettings.getAi().setHttpPoolSize(getInt("ai.google.http.pool_size", 16));
+        appSettings.getAi().setStreaming(getBoolean("ai.google.streaming", true));
+        appSettings.getAi().setCacheEnabled(getBoolean("ai.cache.enabled", true));
+        appSettings.getAi().setCacheTtlSeconds(getInt("ai.cache.ttl_seconds", 3600));
+        appSettings.getAi().setCacheMaxEntries(getInt("ai.cache.max_entries", 10000));
+        appSettings.getAi().setCacheRedisEnabled(getBoolean("ai.cache.redis_enabled", false));
+        appSettings.getAi().setCoalescingEnabled(getBoolean("ai.coalescing.enabled", true));
+        appSettings.getAi().setLimiterInitialConcurrency(getInt("ai.limiter.initial_concurrency", 8));
+        appSettings.getAi().setLimiterMinConcurrency(getInt("ai.limiter.min_concurrency", 1));
+        appSettings.getAi().setLimiterMaxConcurrency(getInt("ai.limiter.max_concurrency", 16));
+        appSettings.getAi().setLimiterQueueCapacity(getInt("ai.limiter.queue_capacity", 64));
 
         // Bot defaults
         appSettings.getBotDefaults().setTimeoutSeconds(getInt("bot.default.timeout", 30));
         appSettings.getBotDefaults().setRetryCount(getInt("bot.default.retry_count", 3));
         appSettings.getBotDefaults().setPriority(getInt("bot.default.priority", 100));
+        appSettings.getBotDefaults().setRestoreConcurrency(getInt("bot.restore.concurrency", 8));
 
         // Plugin defaults
         appSettings.getPluginDefaults().setTimeoutSeconds(getInt("plugin.default.timeout", 60));
         appSettings.getPluginDefaults().setRetryCount(getInt("plugin.default.retry_count", 2));
         appSettings.getPluginDefaults().setSecurity(getString("plugin.default.security", "strict"));
+        appSettings.getPluginDefaults().setMaxConcurrency(getInt("plugin.bulkhead.max_concurrency", 4));
+        appSettings.getPluginDefaults().setQueueCapacity(getInt("plugin.bulkhead.queue_capacity", 16));
+        appSettings.getPluginDefaults().setBreakerFailureThreshold(getInt("plugin.breaker.failure_threshold", 5));
+        appSettings.getPluginDefaults().setBreakerOpenSeconds(getInt("plugin.breaker.open_seconds", 30));
+        appSettings.getPluginDefaults().setPreloadEnabled(getBoolean("plugin.preload.enabled", true));
+        appSettings.getPluginDefaults().setPreloadConcurrency(getInt("plugin.preload.concurrency", 4));
+        appSettings.getPluginDefaults().setWarmupIterations(getInt("plugin.preload.warmup_iterations", 0));
+        appSettings.getPluginDefaults().setRestoreWaitSeconds(getInt("plugin.preload.restore_wait_seconds", 30));
 
         // System
         appSettings.getSystem().setLogLevel(getString("system.log_level", "INFO"));
         appSettings.getSystem().setCacheTtlSeconds(getInt("system.cache_ttl", 600));
         appSettings.getSystem().setMaxCommandsPerBot(getInt("system.max_commands_per_bot", 100));
         appSettings.getSystem().setMaxPluginsPerBot(getInt("system.max_plugins_per_bot", 50));
+        appSettings.getSystem().setAuditBufferCapacity(getInt("system.audit.buffer_capacity", 10000));
+        appSettings.getSystem().setAuditBatchSize(getInt("system.audit.batch_size", 200));
+        appSettings.getSystem().setAuditFlushIntervalMs(getInt("system.audit.flush_interval_ms", 1000));
+
+        // Telegram update processing
+        appSettings.getTelegram().setUpdateWorkerMode(getString("telegram.update.worker_mode", "virtual"));
+        appSettings.getTelegram().setUpdateWorkers(getInt("telegram.update.workers", 64));
+        appSettings.getTelegram().setUpdateQueueCapacity(getInt("telegram.update.queue_capacity", 1000));
+        appSettings.getTelegram().setPollingEngine(getString("telegram.polling.engine", "shared"));
+        appSettings.getTelegram().setPollingThreads(getInt("telegram.polling.threads", 4));
+        appSettings.getTelegram().setLongPollTimeoutSeconds(getInt("telegram.polling.timeout_seconds", 50));
+        appSettings.getTelegram().setWebhookBaseUrl(getString("telegram.webhook.base_url", ""));
+
+        // Telegram outbound calls
+        appSettings.getTelegram().setOutboundBotPerSecond(getInt("telegram.outbound.bot_per_second", 30));
+        appSettings.getTelegram().setOutboundChatPerSecond(getDouble("telegram.outbound.chat_per_second", 1.0));
+        appSettings.getTelegram().setOutboundGroupPerMinute(getInt("telegram.outbound.group_per_minute", 20));
+        appSettings.getTelegram().setOutboundMaxRetries(getInt("telegram.outbound.max_retries", 3));
+        appSettings.getTelegram().setOutboundQueueCapacity(getInt("telegram.outbound.queue_capacity", 10000));
+        appSettings.getTelegram().setOutboundEditIntervalMs(getInt("telegram.outbound.edit_interval_ms", 1000));
+
+        // Telegram bot restarts
+        appSettings.getTelegram().setStopTimeoutSeconds(getInt("telegram.restart.stop_timeout_seconds", 10));
+        appSettings.getTelegram().setConflictRetries(getInt("telegram.restart.conflict_retries", 6));
+        appSettings.getTelegram().setShutdownDrainSeconds(getInt("telegram.shutdown.drain_seconds", 20));
 
         log.info("Application settings loaded");
     }
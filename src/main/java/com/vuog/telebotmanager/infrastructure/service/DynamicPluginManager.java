@@ -6,20 +6,27 @@ import com.vuog.telebotmanager.domain.service.PluginManager;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
 import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.vuong.dynamicmoduleloader.PluginRuntimeService;
 import org.vuong.dynamicmoduleloader.core.Plugin;
 
-import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Dynamic plugin manager implementation using the Dynamic Module Loader
@@ -34,9 +41,14 @@ public class DynamicPluginManager implements PluginManager {
     private final PluginRepository pluginRepository;
     private final PluginRuntimeService pluginRuntimeService = new PluginRuntimeService();
     private final AppSettings appSettings;
+    private final MeterRegistry meterRegistry;
+    private final PluginCompiler pluginCompiler;
+    private final PluginBytecodeCache pluginBytecodeCache;
 
-    private final Map<String, Plugin> loadedPlugins = new ConcurrentHashMap<>();
-    private final Map<String, PluginExecutionStats> pluginStats = new ConcurrentHashMap<>();
+    private final Map<String, LoadedPlugin> loadedPlugins = new ConcurrentHashMap<>();
+    private final Map<String, PluginEntryPoint> entryPoints = new ConcurrentHashMap<>();
+    private final Map<String, PluginBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentPluginExecutionStats> pluginStats = new ConcurrentHashMap<>();
 
     @Override
     public BotPlugin compileAndLoadPlugin(String pluginId, String sourceCode, String className, String methodName) {
@@ -51,8 +63,9 @@ public class DynamicPluginManager implements PluginManager {
             botPlugin.setClassName(className);
             botPlugin.setMethodName(methodName);
 
-            // Compile plugin using Dynamic Module Loader
-            Plugin compiledPlugin = pluginRuntimeService.compileAndRegister(className, sourceCode);
+            // Compile the new source and cache its bytecode
+            LoadedPlugin compiledPlugin = loadPluginClass(botPlugin);
+            entryPoints.put(botPlugin.getName(), PluginEntryPoint.resolve(botPlugin, compiledPlugin.pluginClass()));
             loadedPlugins.put(botPlugin.getName(), compiledPlugin);
 
             // Update plugin status
@@ -62,7 +75,7 @@ public class DynamicPluginManager implements PluginManager {
             pluginRepository.save(botPlugin);
 
             // Initialize stats
-            pluginStats.put(botPlugin.getName(), new PluginExecutionStatsImpl(botPlugin.getName()));
+            resetStats(botPlugin.getName());
 
             log.info("Plugin compiled and loaded successfully: {}", pluginId);
             return botPlugin;
@@ -71,6 +84,10 @@ public class DynamicPluginManager implements PluginManager {
             log.error("Error compiling and loading plugin: {}", pluginId, e);
             botPlugin.markAsError();
             pluginRepository.save(botPlugin);
+            if (e instanceof PluginCompiler.PluginCompilationException compilationError) {
+                // Carries the compiler's diagnostics for the plugin author
+                throw compilationError;
+            }
             throw new RuntimeException("Failed to compile and load plugin", e);
         }
     }
@@ -82,23 +99,26 @@ public class DynamicPluginManager implements PluginManager {
         BotPlugin botPlugin = pluginRepository.findById(pluginId)
                 .orElseThrow(() -> new IllegalArgumentException("Plugin not found: " + pluginId));
 
-        if (botPlugin.getStatus() != BotPlugin.PluginStatus.COMPILED) {
+        if (botPlugin.getStatus() == BotPlugin.PluginStatus.DRAFT) {
             throw new IllegalStateException("Plugin must be compiled before loading: " + pluginId);
         }
 
         try {
-            // Load plugin using Dynamic Module Loader
-            Plugin compiledPlugin = pluginRuntimeService.compileAndRegister(
-                    botPlugin.getClassName(), botPlugin.getSourceCode());
+            // Define the plugin from cached bytecode, compiling only when the source changed
+            LoadedPlugin compiledPlugin = loadPluginClass(botPlugin);
+            entryPoints.put(botPlugin.getName(), PluginEntryPoint.resolve(botPlugin, compiledPlugin.pluginClass()));
             loadedPlugins.put(botPlugin.getName(), compiledPlugin);
 
-            // Update plugin status
-            botPlugin.load();
-            botPlugin.activate();
+            // Update plugin status; active plugins are reloaded on bot start and stay active
+            if (botPlugin.getStatus() != BotPlugin.PluginStatus.ACTIVE) {
+                botPlugin.compile();
+                botPlugin.load();
+                botPlugin.activate();
+            }
             pluginRepository.save(botPlugin);
 
             // Initialize stats
-            pluginStats.put(botPlugin.getName(), new PluginExecutionStatsImpl(botPlugin.getName()));
+            resetStats(botPlugin.getName());
 
             log.info("Plugin loaded successfully: {}", pluginId);
             return botPlugin;
@@ -107,6 +127,10 @@ public class DynamicPluginManager implements PluginManager {
             log.error("Error loading plugin: {}", pluginId, e);
             botPlugin.markAsError();
             pluginRepository.save(botPlugin);
+            if (e instanceof PluginCompiler.PluginCompilationException compilationError) {
+                // Carries the compiler's diagnostics for the plugin author
+                throw compilationError;
+            }
             throw new RuntimeException("Failed to load plugin", e);
         }
     }
@@ -120,11 +144,15 @@ public class DynamicPluginManager implements PluginManager {
 
         try {
             // Remove from loaded plugins
-            loadedPlugins.remove(botPlugin.getName());
-            pluginStats.remove(botPlugin.getName());
+            LoadedPlugin removed = loadedPlugins.remove(botPlugin.getName());
+            entryPoints.remove(botPlugin.getName());
+            removeBulkhead(botPlugin.getName());
+            removeStats(botPlugin.getName());
 
             // Remove from Dynamic Module Loader registry
-            pluginRuntimeService.removePlugin(botPlugin.getName());
+            if (removed == null || removed.registered()) {
+                pluginRuntimeService.removePlugin(botPlugin.getName());
+            }
 
             // Update plugin status
             botPlugin.deactivate();
@@ -138,7 +166,11 @@ public class DynamicPluginManager implements PluginManager {
         }
     }
 
+    /**
+     * Runs outside a transaction so no database connection is held while waiting on the plugin's bulkhead
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CommandResponse executePlugin(String pluginName, CommandRequest request) {
         log.info("Executing plugin: {}", pluginName);
 
@@ -146,68 +178,81 @@ public class DynamicPluginManager implements PluginManager {
             return CommandResponse.error(request.getCommandId(), "Plugin not loaded: " + pluginName, "PLUGIN_NOT_LOADED");
         }
 
+        PluginExecutionStats stats = pluginStats.computeIfAbsent(pluginName, this::newStats);
+        long start = System.nanoTime();
         try {
-            // Get plugin stats
-            PluginExecutionStats stats = pluginStats.computeIfAbsent(pluginName, PluginExecutionStatsImpl::new);
-
-            // Execute plugin using reflection
-            Plugin plugin = loadedPlugins.get(pluginName);
-            Class<?> clazz = plugin.getPluginClass();
-            Object instance = clazz.getDeclaredConstructor().newInstance();
-
-            // Find the method to execute
-            Method method = findExecutionMethod(clazz, request);
-            if (method == null) {
-                throw new RuntimeException("No suitable execution method found in plugin: " + pluginName);
-            }
+            // Execute plugin through its cached entry point
+            PluginEntryPoint entryPoint = entryPointOf(pluginName);
 
             int timeoutSec = Math.max(1, appSettings.getPluginDefaults().getTimeoutSeconds());
             int maxRetries = Math.max(0, appSettings.getPluginDefaults().getRetryCount());
-            long start = System.currentTimeMillis();
+
+            PluginBulkhead bulkhead = bulkheadOf(pluginName);
 
             for (int attempt = 0; attempt <= maxRetries; attempt++) {
+                // A timed-out attempt may still be running, so per-call plugins get a fresh instance each time
+                Object instance = entryPoint.instance();
+                PluginBulkhead.Permit permit = bulkhead.tryAcquire();
+                if (permit == null) {
+                    log.warn("Plugin circuit is open, rejecting execution: {}", pluginName);
+                    stats.recordExecution(false, elapsedMs(start));
+                    return CommandResponse.error(request.getCommandId(),
+                            "Plugin is temporarily unavailable after repeated timeouts", "PLUGIN_CIRCUIT_OPEN");
+                }
+                if (attempt > 0) {
+                    stats.recordRetry();
+                }
+                Future<Object> future = null;
                 try {
-                    CompletableFuture<Object> future = CompletableFuture.supplyAsync(() -> {
-                        try {
-                            return method.invoke(instance, request.getInputText(), request.getParameters());
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+                    future = bulkhead.submit(invocation(entryPoint, instance, request));
                     Object result = future.get(timeoutSec, TimeUnit.SECONDS);
+                    bulkhead.onCompleted(permit);
                     String responseText = result != null ? result.toString() : "Plugin executed successfully";
 
                     // Update stats
-                    stats.recordExecution(true, System.currentTimeMillis() - start);
+                    stats.recordExecution(true, elapsedMs(start));
 
                     log.info("Plugin executed successfully: {} (attempt {} of {})", pluginName, attempt + 1, maxRetries + 1);
                     return CommandResponse.success(request.getCommandId(), responseText);
-                } catch (java.util.concurrent.TimeoutException te) {
+                } catch (RejectedExecutionException re) {
+                    bulkhead.release(permit);
+                    log.warn("Plugin execution rejected, pool and queue are full: {}", pluginName);
+                    stats.recordExecution(false, elapsedMs(start));
+                    return CommandResponse.error(request.getCommandId(), "Plugin is busy, try again later", "PLUGIN_BUSY");
+                } catch (TimeoutException te) {
+                    // Interrupt the attempt so it doesn't keep a worker busy
+                    future.cancel(true);
+                    bulkhead.onTimeout(permit);
+                    stats.recordTimeout();
                     log.warn("Plugin execution timed out after {}s: {} (attempt {} of {})", timeoutSec, pluginName, attempt + 1, maxRetries + 1);
                     if (attempt == maxRetries) {
-                        stats.recordExecution(false, System.currentTimeMillis() - start);
+                        stats.recordExecution(false, elapsedMs(start));
                         return CommandResponse.error(request.getCommandId(), "Plugin execution timed out", "PLUGIN_TIMEOUT");
                     }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    future.cancel(true);
+                    bulkhead.release(permit);
+                    stats.recordExecution(false, elapsedMs(start));
+                    return CommandResponse.error(request.getCommandId(), "Plugin execution interrupted", "PLUGIN_EXECUTION_ERROR");
                 } catch (Exception e) {
+                    bulkhead.onCompleted(permit);
                     log.warn("Plugin execution failed: {} (attempt {} of {}): {}", pluginName, attempt + 1, maxRetries + 1, e.getMessage());
                     if (attempt == maxRetries) {
-                        stats.recordExecution(false, System.currentTimeMillis() - start);
+                        stats.recordExecution(false, elapsedMs(start));
                         return CommandResponse.error(request.getCommandId(), "Plugin execution failed: " + e.getMessage(), "PLUGIN_EXECUTION_ERROR");
                     }
                 }
             }
 
-            stats.recordExecution(false, System.currentTimeMillis() - start);
+            stats.recordExecution(false, elapsedMs(start));
             return CommandResponse.error(request.getCommandId(), "Plugin execution failed", "PLUGIN_EXECUTION_ERROR");
 
         } catch (Exception e) {
             log.error("Error executing plugin: {}", pluginName, e);
 
             // Update stats
-            PluginExecutionStats stats = pluginStats.get(pluginName);
-            if (stats != null) {
-                stats.recordExecution(false, System.currentTimeMillis());
-            }
+            stats.recordExecution(false, elapsedMs(start));
 
             return CommandResponse.error(request.getCommandId(), "Plugin execution failed: " + e.getMessage(), "PLUGIN_EXECUTION_ERROR");
         }
@@ -227,7 +272,8 @@ public class DynamicPluginManager implements PluginManager {
 
     @Override
     public boolean isPluginLoaded(String pluginName) {
-        return loadedPlugins.containsKey(pluginName) && pluginRuntimeService.containsPlugin(pluginName);
+        LoadedPlugin loaded = loadedPlugins.get(pluginName);
+        return loaded != null && (!loaded.registered() || pluginRuntimeService.containsPlugin(pluginName));
     }
 
     @Override
@@ -246,6 +292,9 @@ public class DynamicPluginManager implements PluginManager {
 
         } catch (Exception e) {
             log.error("Error reloading plugin: {}", pluginId, e);
+            if (e instanceof PluginCompiler.PluginCompilationException compilationError) {
+                throw compilationError;
+            }
             throw new RuntimeException("Failed to reload plugin", e);
         }
     }
@@ -253,7 +302,42 @@ public class DynamicPluginManager implements PluginManager {
     @Override
     @Transactional(readOnly = true)
     public PluginExecutionStats getPluginStats(String pluginName) {
-        return pluginStats.getOrDefault(pluginName, new PluginExecutionStatsImpl(pluginName));
+        PluginExecutionStats stats = pluginStats.get(pluginName);
+        return stats != null ? stats : new ConcurrentPluginExecutionStats(pluginName);
+    }
+
+    /**
+     * Runs outside a transaction so no database connection is held during the warm-up calls
+     *
+     * @throws RejectedExecutionException if the plugin's bulkhead is full; the plugin stays loaded
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void warmUpPlugin(String pluginName, CommandRequest request, int iterations) {
+        if (!isPluginLoaded(pluginName)) {
+            throw new IllegalStateException("Plugin not loaded: " + pluginName);
+        }
+
+        PluginEntryPoint entryPoint = entryPointOf(pluginName);
+        PluginBulkhead bulkhead = bulkheadOf(pluginName);
+        int timeoutSec = Math.max(1, appSettings.getPluginDefaults().getTimeoutSeconds());
+        for (int i = 0; i < iterations; i++) {
+            Future<Object> future = bulkhead.submit(invocation(entryPoint, entryPoint.instance(), request));
+            try {
+                future.get(timeoutSec, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new IllegalStateException("Warm-up of plugin " + pluginName + " timed out after " + timeoutSec + "s");
+            } catch (ExecutionException e) {
+                // Plugins may reject the stub input; the code paths up to that point are warm either way
+                log.debug("Warm-up call of plugin {} failed: {}", pluginName, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return;
+            }
+        }
     }
 
     @Override
@@ -269,98 +353,141 @@ public class DynamicPluginManager implements PluginManager {
         }
 
         loadedPlugins.clear();
-        pluginStats.clear();
+        entryPoints.clear();
+        bulkheads.keySet().forEach(this::removeBulkhead);
+        pluginStats.keySet().forEach(this::removeStats);
         pluginRuntimeService.clearPlugins();
 
         log.info("All plugins cleared");
     }
 
     /**
-     * Find the appropriate execution method in the plugin class
+     * Get the plugin class, defining it from cached bytecode when the source and environment are unchanged
+     * Falls back to the Dynamic Module Loader only when no system compiler or class path is available;
+     * errors in the source are reported as they are.
      */
-    private Method findExecutionMethod(Class<?> clazz, CommandRequest request) {
-        try {
-            // Try to find a method that matches the expected signature
-            Method[] methods = clazz.getDeclaredMethods();
-            for (Method method : methods) {
-                if (method.getName().equals("execute") ||
-                        method.getName().equals("process") ||
-                        method.getName().equals("handle")) {
-                    Class<?>[] paramTypes = method.getParameterTypes();
-                    if (paramTypes.length == 2 &&
-                            paramTypes[0] == String.class &&
-                            paramTypes[1] == Map.class) {
-                        return method;
-                    }
-                }
+    private LoadedPlugin loadPluginClass(BotPlugin botPlugin) throws Exception {
+        String className = botPlugin.getClassName();
+        String sourceCode = botPlugin.getSourceCode();
+        String sourceHash = pluginCompiler.cacheKey(sourceCode);
+
+        Optional<Map<String, byte[]>> cached = pluginBytecodeCache.find(botPlugin, sourceHash);
+        if (cached.isPresent()) {
+            try {
+                Class<?> pluginClass = pluginCompiler.define(className, cached.get());
+                log.debug("Plugin {} loaded from cached bytecode", botPlugin.getName());
+                return new LoadedPlugin(pluginClass, false);
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.warn("Cached bytecode of plugin {} is unusable, recompiling: {}", botPlugin.getName(), e.getMessage());
             }
+        }
 
-            // If no specific method found, try the first public method
-            for (Method method : methods) {
-                if (method.getParameterCount() <= 2) {
-                    return method;
-                }
+        if (pluginCompiler.isAvailable()) {
+            try {
+                Map<String, byte[]> classes = pluginCompiler.compile(className, sourceCode);
+                Class<?> pluginClass = pluginCompiler.define(className, classes);
+                storeBytecode(botPlugin, sourceHash, classes);
+                return new LoadedPlugin(pluginClass, false);
+            } catch (PluginCompiler.PluginCompilationException e) {
+                log.warn("Plugin {} does not compile: {}", botPlugin.getName(), e.getMessage());
+                throw e;
+            } catch (IllegalStateException e) {
+                log.warn("In-memory compiler unavailable for plugin {}, using the module loader: {}", botPlugin.getName(), e.getMessage());
             }
+        }
 
+        Plugin compiledPlugin = pluginRuntimeService.compileAndRegister(className, sourceCode);
+        return new LoadedPlugin(compiledPlugin.getPluginClass(), true);
+    }
+
+    private void storeBytecode(BotPlugin botPlugin, String sourceHash, Map<String, byte[]> classes) {
+        try {
+            pluginBytecodeCache.store(botPlugin, sourceHash, classes);
         } catch (Exception e) {
-            log.error("Error finding execution method", e);
+            // The plugin is loaded either way; it is just compiled again next time
+            log.warn("Failed to cache bytecode of plugin {}: {}", botPlugin.getName(), e.getMessage());
         }
-
-        return null;
     }
 
-    // Plugin execution stats implementation
-    private static class PluginExecutionStatsImpl implements PluginExecutionStats {
-        private final String pluginName;
-        private long executionCount = 0;
-        private long successCount = 0;
-        private long errorCount = 0;
-        private long totalExecutionTime = 0;
-        private long lastExecutionTime = 0;
-
-        public PluginExecutionStatsImpl(String pluginName) {
-            this.pluginName = pluginName;
+    /**
+     * Get the cached entry point of a loaded plugin, resolving it if the plugin was loaded without one
+     */
+    private PluginEntryPoint entryPointOf(String pluginName) {
+        PluginEntryPoint entryPoint = entryPoints.get(pluginName);
+        if (entryPoint != null) {
+            return entryPoint;
         }
+        BotPlugin botPlugin = pluginRepository.findByName(pluginName)
+                .orElseThrow(() -> new IllegalArgumentException("Plugin not found: " + pluginName));
+        return entryPoints.computeIfAbsent(pluginName,
+                name -> PluginEntryPoint.resolve(botPlugin, loadedPlugins.get(name).pluginClass()));
+    }
 
-        public void recordExecution(boolean success, long executionTime) {
-            executionCount++;
-            if (success) {
-                successCount++;
-            } else {
-                errorCount++;
+    private static Callable<Object> invocation(PluginEntryPoint entryPoint, Object instance, CommandRequest request) {
+        return () -> {
+            try {
+                return entryPoint.invoke(instance, request.getInputText(), request.getParameters());
+            } catch (Throwable e) {
+                // Errors raised by plugin code must not escape the worker unwrapped
+                throw e instanceof Exception exception ? exception : new RuntimeException(e);
             }
-            totalExecutionTime += executionTime;
-            lastExecutionTime = executionTime;
-        }
+        };
+    }
 
-        @Override
-        public String getPluginName() {
-            return pluginName;
-        }
+    /**
+     * Get the bulkhead of a plugin, created on first execution from the plugin defaults
+     */
+    private PluginBulkhead bulkheadOf(String pluginName) {
+        return bulkheads.computeIfAbsent(pluginName, name -> {
+            AppSettings.PluginDefaults defaults = appSettings.getPluginDefaults();
+            return new PluginBulkhead(name, defaults.getMaxConcurrency(), defaults.getQueueCapacity(),
+                    defaults.getBreakerFailureThreshold(), Duration.ofSeconds(Math.max(1, defaults.getBreakerOpenSeconds())));
+        });
+    }
 
-        @Override
-        public long getExecutionCount() {
-            return executionCount;
+    private void removeBulkhead(String pluginName) {
+        PluginBulkhead bulkhead = bulkheads.remove(pluginName);
+        if (bulkhead != null) {
+            bulkhead.shutdown();
         }
+    }
 
-        @Override
-        public long getSuccessCount() {
-            return successCount;
-        }
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.keySet().forEach(this::removeBulkhead);
+    }
 
-        @Override
-        public long getErrorCount() {
-            return errorCount;
-        }
+    /**
+     * Start fresh statistics for a (re)loaded plugin
+     * Old meters are removed first; the registry would otherwise hand back the meters bound to the old stats.
+     */
+    private void resetStats(String pluginName) {
+        pluginStats.compute(pluginName, (name, previous) -> {
+            if (previous != null) {
+                previous.unbind(meterRegistry);
+            }
+            return newStats(name);
+        });
+    }
 
-        @Override
-        public double getAverageExecutionTime() {
-            return executionCount > 0 ? (double) totalExecutionTime / executionCount : 0.0;
-        }
+    private void removeStats(String pluginName) {
+        pluginStats.computeIfPresent(pluginName, (name, stats) -> {
+            stats.unbind(meterRegistry);
+            return null;
+        });
+    }
 
-        @Override
-        public long getLastExecutionTime() {
-            return lastExecutionTime;
-        }
+    private ConcurrentPluginExecutionStats newStats(String pluginName) {
+        return new ConcurrentPluginExecutionStats(pluginName).bindTo(meterRegistry);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Class of a loaded plugin; registered is true when it came from the Dynamic Module Loader registry
+     */
+    private record LoadedPlugin(Class<?> pluginClass, boolean registered) {
     }
 }
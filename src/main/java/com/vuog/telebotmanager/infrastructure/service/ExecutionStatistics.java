@@ -0,0 +1,108 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.infrastructure.util.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory execution statistics per bot, per stored command and overall
+ * Counters are updated on the dispatch path without locks and reset on restart; the audit table keeps the history.
+ */
+@Component
+public class ExecutionStatistics {
+
+    private final Map<Long, Counters> byBot = new ConcurrentHashMap<>();
+    private final Map<Long, Counters> byCommand = new ConcurrentHashMap<>();
+    private final Counters overall = new Counters();
+
+    /**
+     * Record a finished execution; commandId is null for built-in commands
+     */
+    public void record(Long botId, Long commandId, boolean success, long elapsedMs) {
+        overall.record(success, elapsedMs);
+        if (botId != null) {
+            byBot.computeIfAbsent(botId, id -> new Counters()).record(success, elapsedMs);
+        }
+        if (commandId != null) {
+            byCommand.computeIfAbsent(commandId, id -> new Counters()).record(success, elapsedMs);
+        }
+    }
+
+    public Snapshot getBotStatistics(Long botId) {
+        return snapshotOf(byBot.get(botId));
+    }
+
+    public Snapshot getCommandStatistics(Long commandId) {
+        return snapshotOf(byCommand.get(commandId));
+    }
+
+    public Snapshot getOverallStatistics() {
+        return overall.snapshot();
+    }
+
+    public void removeBot(Long botId) {
+        byBot.remove(botId);
+    }
+
+    public void removeCommand(Long commandId) {
+        byCommand.remove(commandId);
+    }
+
+    private static Snapshot snapshotOf(Counters counters) {
+        return counters != null ? counters.snapshot() : Snapshot.EMPTY;
+    }
+
+    private static final class Counters {
+        private final LongAdder successful = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder totalTimeMs = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile long lastExecutionAt;
+
+        void record(boolean success, long elapsedMs) {
+            (success ? successful : failed).increment();
+            totalTimeMs.add(elapsedMs);
+            latency.record(elapsedMs);
+            lastExecutionAt = System.currentTimeMillis();
+        }
+
+        Snapshot snapshot() {
+            long ok = successful.sum();
+            long ko = failed.sum();
+            long total = ok + ko;
+            long last = lastExecutionAt;
+            return new Snapshot(
+                    total,
+                    ok,
+                    ko,
+                    total > 0 ? (double) ok / total * 100.0 : 0.0,
+                    total > 0 ? totalTimeMs.sum() / total : 0,
+                    latency.percentile(50),
+                    latency.percentile(95),
+                    latency.percentile(99),
+                    last > 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(last), ZoneId.systemDefault()) : null);
+        }
+    }
+
+    /**
+     * Point-in-time view of execution counters; success rate is a percentage, times are in milliseconds
+     */
+    public record Snapshot(long totalExecutions,
+                           long successfulExecutions,
+                           long failedExecutions,
+                           double successRate,
+                           long averageExecutionTimeMs,
+                           long p50ExecutionTimeMs,
+                           long p95ExecutionTimeMs,
+                           long p99ExecutionTimeMs,
+                           LocalDateTime lastExecutionAt) {
+
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0.0, 0, 0, 0, 0, null);
+    }
+}
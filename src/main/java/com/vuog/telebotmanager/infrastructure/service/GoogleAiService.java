@@ -8,17 +8,33 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import com.google.api.client.http.ByteArrayContent;
-import com.google.api.client.http.GenericUrl;
-import com.google.api.client.http.HttpRequest;
-import com.google.api.client.http.HttpRequestFactory;
-import com.google.api.client.http.HttpResponse;
-import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
-
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Google AI service implementation using Gemini API
@@ -32,15 +48,50 @@ public class GoogleAiService implements AiService {
     private final Map<String, Object> configuration = new HashMap<>();
     private final AppSettings appSettings;
 
-    private static final String GEMINI_ENDPOINT = "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent?key=%s";
-    private final NetHttpTransport transport = new NetHttpTransport();
+    private static final String GEMINI_ENDPOINT = "%s/v1beta/models/%s:%s";
+    private static final String GENERATE_METHOD = "generateContent";
+    private static final String STREAM_METHOD = "streamGenerateContent?alt=sse";
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String API_KEY_HEADER = "x-goog-api-key";
     private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
-    private HttpRequestFactory requestFactory() {
-        return transport.createRequestFactory(request -> {
-            int timeout = appSettings.getAi().getTimeoutMs();
-            request.setConnectTimeout(timeout);
-            request.setReadTimeout(timeout);
-        });
+    private final Map<String, URI> endpoints = new ConcurrentHashMap<>();
+
+    private volatile HttpClient httpClient;
+    private volatile ExecutorService httpExecutor;
+    private volatile ScheduledExecutorService watchdog;
+    private volatile Semaphore inFlight;
+
+    /**
+     * Shared client, created on first use so the timeout and pool size come from the loaded settings
+     * Connections are kept alive and reused across calls; HTTP/2 multiplexes calls over one connection.
+     * At most httpPoolSize calls are in flight, which also caps the connections opened on HTTP/1.1 fallback.
+     */
+    private HttpClient httpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    AppSettings.AiSettings ai = appSettings.getAi();
+                    inFlight = new Semaphore(Math.max(1, ai.getHttpPoolSize()));
+                    httpExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gemini-http-", 0).factory());
+                    watchdog = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("gemini-watchdog").daemon(true).factory());
+                    client = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .connectTimeout(Duration.ofMillis(ai.getTimeoutMs()))
+                            .executor(httpExecutor)
+                            .build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private URI endpoint(String model, String method) {
+        String baseUrl = appSettings.getAi().getBaseUrl().replaceAll("/+$", "");
+        return endpoints.computeIfAbsent(baseUrl + " " + model + ":" + method,
+                key -> URI.create(String.format(GEMINI_ENDPOINT, baseUrl, model, method)));
     }
 
     @Override
@@ -78,6 +129,15 @@ public class GoogleAiService implements AiService {
 
     @Override
     public String summarizeText(String text, Map<String, Object> parameters) {
+        return summarize(text, parameters, null);
+    }
+
+    @Override
+    public String summarizeText(String text, Map<String, Object> parameters, Consumer<String> onChunk) {
+        return summarize(text, parameters, onChunk);
+    }
+
+    private String summarize(String text, Map<String, Object> parameters, Consumer<String> onChunk) {
         log.info("Summarizing text of length: {}", text.length());
 
         if (!isAvailable()) {
@@ -88,7 +148,7 @@ public class GoogleAiService implements AiService {
             int maxLength = parameters != null && parameters.containsKey("maxLength")
                     ? Integer.parseInt(parameters.get("maxLength").toString()) : 200;
             String prompt = "Summarize the following text in up to " + maxLength + " characters. Keep key facts.\n\n" + text;
-            String result = callGeminiText(prompt, parameters);
+            String result = callGeminiText(prompt, parameters, onChunk != null ? limitTo(maxLength, onChunk) : null);
             if (result.length() > maxLength) {
                 return result.substring(0, maxLength) + "...";
             }
@@ -99,6 +159,22 @@ public class GoogleAiService implements AiService {
         }
     }
 
+    /**
+     * Forward chunks until the streamed text reaches the limit, so a reply never shows more than the summary keeps
+     */
+    private static Consumer<String> limitTo(int maxLength, Consumer<String> onChunk) {
+        AtomicInteger streamed = new AtomicInteger();
+        return chunk -> {
+            int room = maxLength - streamed.get();
+            if (room <= 0) {
+                return;
+            }
+            String part = chunk.length() > room ? chunk.substring(0, room) : chunk;
+            streamed.addAndGet(part.length());
+            onChunk.accept(part);
+        };
+    }
+
     @Override
     public Map<String, Object> analyzeText(String text, Map<String, Object> parameters) {
         log.info("Analyzing text of length: {}", text.length());
@@ -124,6 +200,15 @@ public class GoogleAiService implements AiService {
 
     @Override
     public String generateContent(String prompt, Map<String, Object> parameters) {
+        return generate(prompt, parameters, null);
+    }
+
+    @Override
+    public String generateContent(String prompt, Map<String, Object> parameters, Consumer<String> onChunk) {
+        return generate(prompt, parameters, onChunk);
+    }
+
+    private String generate(String prompt, Map<String, Object> parameters, Consumer<String> onChunk) {
         log.info("Generating content for prompt: {}", prompt);
 
         if (!isAvailable()) {
@@ -131,7 +216,7 @@ public class GoogleAiService implements AiService {
         }
 
         try {
-            return callGeminiText(prompt, parameters);
+            return callGeminiText(prompt, parameters, onChunk);
         } catch (Exception e) {
             log.error("Error generating content", e);
             throw new RuntimeException("Failed to generate content", e);
@@ -140,6 +225,15 @@ public class GoogleAiService implements AiService {
 
     @Override
     public String answerQuestion(String question, String context, Map<String, Object> parameters) {
+        return answer(question, context, parameters, null);
+    }
+
+    @Override
+    public String answerQuestion(String question, String context, Map<String, Object> parameters, Consumer<String> onChunk) {
+        return answer(question, context, parameters, onChunk);
+    }
+
+    private String answer(String question, String context, Map<String, Object> parameters, Consumer<String> onChunk) {
         log.info("Answering question: {}", question);
 
         if (!isAvailable()) {
@@ -149,7 +243,7 @@ public class GoogleAiService implements AiService {
         try {
             String prompt = (context != null && !context.isBlank() ? ("Context:\n" + context + "\n\n") : "") +
                     "Question: " + question + "\nAnswer concisely and accurately.";
-            return callGeminiText(prompt, parameters);
+            return callGeminiText(prompt, parameters, onChunk);
         } catch (Exception e) {
             log.error("Error answering question", e);
             throw new RuntimeException("Failed to answer question", e);
@@ -168,6 +262,7 @@ public class GoogleAiService implements AiService {
         configuration.put("temperature", appSettings.getAi().getTemperature());
         configuration.put("maxTokens", appSettings.getAi().getMaxTokens());
         configuration.put("timeoutMs", appSettings.getAi().getTimeoutMs());
+        configuration.put("httpPoolSize", appSettings.getAi().getHttpPoolSize());
         return new HashMap<>(configuration);
     }
 
@@ -213,15 +308,26 @@ public class GoogleAiService implements AiService {
         };
     }
 
-    // Real API call using google-api-client
+    @PreDestroy
+    public void shutdown() {
+        HttpClient client = httpClient;
+        if (client != null) {
+            client.shutdownNow();
+            httpExecutor.shutdownNow();
+            watchdog.shutdownNow();
+        }
+    }
+
     private String callGeminiText(String prompt, Map<String, Object> parameters) throws Exception {
-        String url = String.format(GEMINI_ENDPOINT, appSettings.getAi().getModel(), appSettings.getAi().getApiKey());
+        return callGeminiText(prompt, parameters, null);
+    }
 
+    // Real API call over the shared HTTP client; streams over SSE when a chunk consumer is given
+    private String callGeminiText(String prompt, Map<String, Object> parameters, Consumer<String> onChunk) throws Exception {
         Map<String, Object> generationConfig = new HashMap<>();
-        generationConfig.put("temperature", parameters != null && parameters.containsKey("temperature")
-                ? Double.parseDouble(parameters.get("temperature").toString()) : appSettings.getAi().getTemperature());
-        generationConfig.put("maxOutputTokens", parameters != null && parameters.containsKey("maxTokens")
-                ? Integer.parseInt(parameters.get("maxTokens").toString()) : appSettings.getAi().getMaxTokens());
+        // Unparseable settings fall back to the defaults, as in the response cache key
+        generationConfig.put("temperature", doubleParameter(parameters, "temperature", appSettings.getAi().getTemperature()));
+        generationConfig.put("maxOutputTokens", intParameter(parameters, "maxTokens", appSettings.getAi().getMaxTokens()));
 
         Map<String, Object> body = new HashMap<>();
         Map<String, Object> part = Map.of("text", prompt);
@@ -229,39 +335,160 @@ public class GoogleAiService implements AiService {
         body.put("contents", java.util.List.of(content));
         body.put("generationConfig", generationConfig);
 
-        byte[] payload = jsonFactory.toByteArray(body);
-        HttpRequest request = requestFactory().buildPostRequest(new GenericUrl(url),
-                new ByteArrayContent("application/json", payload));
-        request.getHeaders().setAccept("application/json");
+        int timeoutMs = appSettings.getAi().getTimeoutMs();
+        HttpClient client = httpClient();
+        // The deadline covers waiting for a free slot as well as the call itself
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        if (!inFlight.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new HttpTimeoutException("No free Gemini connection within " + timeoutMs + " ms");
+        }
+        try {
+            long remainingMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            HttpRequest request = HttpRequest.newBuilder(endpoint(appSettings.getAi().getModel(),
+                            onChunk != null ? STREAM_METHOD : GENERATE_METHOD))
+                    .timeout(Duration.ofMillis(remainingMs))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", onChunk != null ? "text/event-stream" : "application/json")
+                    .header(API_KEY_HEADER, appSettings.getAi().getApiKey())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(jsonFactory.toByteArray(body)))
+                    .build();
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            // The request timeout ends once the headers arrive; the watchdog closes the body when the deadline passes
+            AtomicBoolean expired = new AtomicBoolean();
+            ScheduledFuture<?> bodyDeadline = watchdog.schedule(() -> {
+                expired.set(true);
+                closeQuietly(response.body());
+            }, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            try (InputStream is = response.body()) {
+                if (response.statusCode() / 100 != 2) {
+                    String error = new String(is.readNBytes(1024), StandardCharsets.UTF_8);
+                    throw new GeminiApiException(response.statusCode(), "Gemini API returned HTTP " + response.statusCode() + ": " + error);
+                }
+                String text;
+                if (onChunk != null) {
+                    text = readStream(is, onChunk);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> resp = jsonFactory.createJsonParser(is).parse(HashMap.class);
+                    text = extractText(resp);
+                }
+                // A closed body can read as a normal end of stream
+                if (expired.get()) {
+                    throw new HttpTimeoutException("Gemini response did not finish within " + timeoutMs + " ms");
+                }
+                return text;
+            } catch (IOException | RuntimeException e) {
+                if (expired.get() && !(e instanceof HttpTimeoutException)) {
+                    HttpTimeoutException timeout = new HttpTimeoutException("Gemini response did not finish within " + timeoutMs + " ms");
+                    timeout.initCause(e);
+                    throw timeout;
+                }
+                throw e;
+            } finally {
+                bodyDeadline.cancel(false);
+            }
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Read a streamGenerateContent SSE body; each event carries a partial response with the next chunk of text
+     */
+    private String readStream(InputStream is, Consumer<String> onChunk) throws IOException {
+        StringBuilder result = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith(SSE_DATA_PREFIX)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> event = jsonFactory.createJsonParser(line.substring(SSE_DATA_PREFIX.length()).trim()).parse(HashMap.class);
+            String chunk = textOf(event);
+            if (chunk != null && !chunk.isEmpty()) {
+                result.append(chunk);
+                onChunk.accept(chunk);
+            }
+        }
+        return result.toString();
+    }
+
+    private static double doubleParameter(Map<String, Object> parameters, String name, double defaultValue) {
+        Object value = parameters != null ? parameters.get(name) : null;
+        try {
+            return value != null ? Double.parseDouble(value.toString().strip()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 
-        HttpResponse response = request.execute();
+    private static int intParameter(Map<String, Object> parameters, String name, int defaultValue) {
+        Object value = parameters != null ? parameters.get(name) : null;
         try {
-            try (java.io.InputStream is = response.getContent()) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> resp = jsonFactory.createJsonParser(is).parse(HashMap.class);
-                // Extract candidates[0].content.parts[0].text
-                Object candidatesObj = resp.get("candidates");
-                if (candidatesObj instanceof java.util.List<?> candidates && !candidates.isEmpty()) {
-                    Object first = candidates.getFirst();
-                    if (first instanceof Map<?, ?> c0) {
-                        Object contentObj = c0.get("content");
-                        if (contentObj instanceof Map<?, ?> contentMap) {
-                            Object partsObj = contentMap.get("parts");
-                            if (partsObj instanceof java.util.List<?> parts && !parts.isEmpty()) {
-                                Object p0 = parts.getFirst();
-                                if (p0 instanceof Map<?, ?> partMap) {
-                                    Object textObj = partMap.get("text");
-                                    if (textObj != null) return textObj.toString();
-                                }
-                            }
+            return value != null ? Integer.parseInt(value.toString().strip()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static void closeQuietly(InputStream is) {
+        try {
+            is.close();
+        } catch (IOException e) {
+            // The reader sees the stream as closed either way
+        }
+    }
+
+    private static String extractText(Map<String, Object> resp) {
+        String text = textOf(resp);
+        // Fallback: return entire JSON string
+        return text != null ? text : resp.toString();
+    }
+
+    private static String textOf(Map<String, Object> resp) {
+        // Extract candidates[0].content.parts[0].text
+        Object candidatesObj = resp.get("candidates");
+        if (candidatesObj instanceof java.util.List<?> candidates && !candidates.isEmpty()) {
+            Object first = candidates.getFirst();
+            if (first instanceof Map<?, ?> c0) {
+                Object contentObj = c0.get("content");
+                if (contentObj instanceof Map<?, ?> contentMap) {
+                    Object partsObj = contentMap.get("parts");
+                    if (partsObj instanceof java.util.List<?> parts && !parts.isEmpty()) {
+                        Object p0 = parts.getFirst();
+                        if (p0 instanceof Map<?, ?> partMap) {
+                            Object textObj = partMap.get("text");
+                            if (textObj != null) return textObj.toString();
                         }
                     }
                 }
-                // Fallback: return entire JSON string
-                return resp.toString();
             }
-        } finally {
-            response.disconnect();
+        }
+        return null;
+    }
+
+    /**
+     * Non-2xx answer of the Gemini API
+     */
+    public static class GeminiApiException extends RuntimeException {
+
+        private final int statusCode;
+
+        public GeminiApiException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Check if Gemini is rate limiting (429) or overloaded (503)
+         */
+        public boolean isOverload() {
+            return statusCode == 429 || statusCode == 503;
         }
     }
 }
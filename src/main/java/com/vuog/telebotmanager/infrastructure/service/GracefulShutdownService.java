@@ -0,0 +1,83 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.application.service.BotOrchestrationService;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import com.vuog.telebotmanager.infrastructure.telegram.OutboundDispatcher;
+import com.vuog.telebotmanager.infrastructure.telegram.TelegramBotService;
+import com.vuog.telebotmanager.infrastructure.telegram.UpdateScheduler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Service for shutting the bot runtime down without losing accepted updates
+ * Stops intake, drains queued updates and replies up to a deadline, then persists suspension state.
+ * Runs in the first shutdown phase, before the web server and other beans stop.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GracefulShutdownService implements SmartLifecycle {
+
+    private final TelegramBotService telegramBotService;
+    private final UpdateScheduler updateScheduler;
+    private final OutboundDispatcher outboundDispatcher;
+    private final BotOrchestrationService botOrchestrationService;
+    private final AppSettings appSettings;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        log.info("Application is shutting down...");
+        long start = System.currentTimeMillis();
+        Duration drainTimeout = Duration.ofSeconds(Math.max(0, appSettings.getTelegram().getShutdownDrainSeconds()));
+
+        try {
+            // 1. No new updates from polling or webhooks
+            telegramBotService.stopIntake();
+
+            // 2. Let accepted updates and their deferred AI replies finish, and the replies go out
+            long deadline = System.nanoTime() + drainTimeout.toNanos();
+            int pendingUpdates = updateScheduler.awaitIdle(drainTimeout);
+            int pendingReplies = outboundDispatcher.awaitIdle(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            if (pendingUpdates > 0 || pendingReplies > 0) {
+                log.warn("Shutdown drain timed out with {} update(s) and {} reply(ies) pending", pendingUpdates, pendingReplies);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while draining bots");
+        } catch (Exception e) {
+            log.error("Error stopping bot intake: {}", e.getMessage(), e);
+        }
+
+        // 3. Mark running bots as suspended so they are restored on next startup
+        try {
+            int suspended = botOrchestrationService.suspendActiveBots("Bot suspended during application shutdown");
+            log.info("Application shutdown completed: {} bot(s) suspended in {} ms", suspended, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Error persisting bot suspension during shutdown: {}", e.getMessage());
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop before the web server so the webhook endpoint can answer 503 while draining
+        return Integer.MAX_VALUE;
+    }
+}
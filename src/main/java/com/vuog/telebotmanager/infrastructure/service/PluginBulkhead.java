@@ -0,0 +1,122 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isolated executor and circuit breaker of a single plugin
+ * Each plugin runs on its own bounded pool of virtual threads with a bounded queue, so a slow or stuck plugin
+ * can only exhaust its own capacity. After repeated timeouts the breaker rejects calls until the open period ends,
+ * then lets a single trial call through.
+ */
+final class PluginBulkhead {
+
+    private final ThreadPoolExecutor executor;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private int consecutiveTimeouts;
+    private boolean trialInFlight;
+    private long openUntil;
+    private boolean open;
+
+    /**
+     * Incremented whenever the breaker opens; results of calls admitted before that are ignored
+     */
+    private long generation;
+
+    PluginBulkhead(String pluginName, int maxConcurrency, int queueCapacity, int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+        int threads = Math.max(1, maxConcurrency);
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofVirtual().name("plugin-" + pluginName + "-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Check if the breaker lets a call through; in the half-open state only one trial call is allowed
+     * Returns the permit to report the call's outcome with, or null if the call is rejected.
+     */
+    synchronized Permit tryAcquire() {
+        if (!open) {
+            return new Permit(false, generation);
+        }
+        if (System.nanoTime() - openUntil < 0 || trialInFlight) {
+            return null;
+        }
+        trialInFlight = true;
+        return new Permit(true, generation);
+    }
+
+    /**
+     * Run a call on the plugin's pool
+     *
+     * @throws RejectedExecutionException if the pool and its queue are full
+     */
+    <T> Future<T> submit(Callable<T> call) {
+        return executor.submit(call);
+    }
+
+    /**
+     * The plugin answered, successfully or with an error
+     * A trial call closes the breaker; a call admitted before the breaker opened cannot close it.
+     */
+    synchronized void onCompleted(Permit permit) {
+        if (permit.trial()) {
+            trialInFlight = false;
+            open = false;
+            consecutiveTimeouts = 0;
+        } else if (permit.generation() == generation && !open) {
+            consecutiveTimeouts = 0;
+        }
+    }
+
+    /**
+     * The plugin did not answer in time; opens the breaker after the threshold or when a trial call fails
+     */
+    synchronized void onTimeout(Permit permit) {
+        if (permit.trial()) {
+            trialInFlight = false;
+            trip();
+        } else if (permit.generation() == generation && !open && ++consecutiveTimeouts >= failureThreshold) {
+            trip();
+        }
+    }
+
+    /**
+     * Give back a permit taken by {@link #tryAcquire()} when the call never ran
+     */
+    synchronized void release(Permit permit) {
+        if (permit.trial()) {
+            trialInFlight = false;
+        }
+    }
+
+    private void trip() {
+        generation++;
+        consecutiveTimeouts = 0;
+        openUntil = System.nanoTime() + openNanos;
+        open = true;
+    }
+
+    /**
+     * Stop the pool and interrupt calls still running
+     */
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Admission of one call; trial calls are the single calls let through while the breaker is half-open
+     */
+    record Permit(boolean trial, long generation) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.BotPlugin;
+import com.vuog.telebotmanager.domain.entity.PluginBytecode;
+import com.vuog.telebotmanager.domain.repository.PluginBytecodeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistent cache of compiled plugin classes
+ * Entries are keyed by plugin and source hash; storing a new version replaces the plugin's previous classes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PluginBytecodeCache {
+
+    private final PluginBytecodeRepository pluginBytecodeRepository;
+
+    /**
+     * Get the compiled classes of a plugin source, keyed by binary class name
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, byte[]>> find(BotPlugin plugin, String sourceHash) {
+        List<PluginBytecode> rows = pluginBytecodeRepository.findByPluginIdAndSourceHash(plugin.getId(), sourceHash);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, byte[]> classes = new HashMap<>();
+        rows.forEach(row -> classes.put(row.getClassName(), row.getBytecode()));
+        return Optional.of(classes);
+    }
+
+    /**
+     * Replace the cached classes of a plugin
+     * Runs in its own transaction so a failed write never rolls back the caller's plugin update.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void store(BotPlugin plugin, String sourceHash, Map<String, byte[]> classes) {
+        pluginBytecodeRepository.deleteByPluginId(plugin.getId());
+        pluginBytecodeRepository.saveAll(classes.entrySet().stream()
+                .map(entry -> PluginBytecode.builder()
+                        .pluginId(plugin.getId())
+                        .pluginVersion(plugin.getVersion())
+                        .sourceHash(sourceHash)
+                        .className(entry.getKey())
+                        .bytecode(entry.getValue())
+                        .build())
+                .toList());
+        log.debug("Cached {} compiled class(es) of plugin {} version {}", classes.size(), plugin.getName(), plugin.getVersion());
+    }
+}
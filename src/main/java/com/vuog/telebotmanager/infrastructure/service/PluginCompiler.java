@@ -0,0 +1,326 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import org.springframework.stereotype.Component;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory compiler for plugin sources
+ * Compiles with javax.tools into byte arrays, so the bytes can be cached and classes defined later without javac.
+ * Dependencies are resolved through the application class loader, which also sees the libraries nested in a
+ * Spring Boot jar that java.class.path does not list.
+ */
+@Component
+public class PluginCompiler {
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private final ClassLoader classLoader = PluginCompiler.class.getClassLoader();
+    private volatile String fingerprint;
+
+    /**
+     * Check if a system Java compiler is available (it is not on a plain JRE)
+     */
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+
+    /**
+     * Compile a plugin source into class bytes keyed by binary class name, including nested classes
+     *
+     * @throws PluginCompilationException if the source does not compile
+     * @throws IllegalStateException if no compiler is available or the class path can't be read
+     */
+    public Map<String, byte[]> compile(String className, String sourceCode) {
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler available");
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> output = new ConcurrentHashMap<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        try (JavaFileManager fileManager = new InMemoryFileManager(standardFileManager, output, classLoader)) {
+            // The class path is served by the file manager from the class loader
+            standardFileManager.setLocation(StandardLocation.CLASS_PATH, List.of());
+            List<String> options = List.of("-g", "-proc:none");
+            boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    List.of(new SourceFile(className, sourceCode))).call();
+            if (!success) {
+                throw new PluginCompilationException("Compilation failed: " + describe(diagnostics));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Compilation failed: " + e.getMessage(), e);
+        }
+
+        return output.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toByteArray()));
+    }
+
+    /**
+     * Define compiled classes in a fresh class loader and return the main class
+     */
+    public Class<?> define(String className, Map<String, byte[]> classes) throws ClassNotFoundException {
+        return new PluginClassLoader(classes, classLoader).loadClass(className);
+    }
+
+    /**
+     * Bytecode cache key of a plugin source
+     * Covers the JDK and the application's libraries as well, so bytecode compiled against other versions is not reused.
+     */
+    public String cacheKey(String sourceCode) {
+        return sha256(fingerprint() + "\u0000" + sourceCode);
+    }
+
+    /**
+     * Fingerprint of the compilation environment: JDK version, application version and library jar names
+     */
+    private String fingerprint() {
+        String current = fingerprint;
+        if (current == null) {
+            StringBuilder material = new StringBuilder()
+                    .append(Runtime.version()).append('\n')
+                    .append(System.getProperty("java.vendor")).append('\n')
+                    .append(PluginCompiler.class.getPackage().getImplementationVersion()).append('\n');
+            if (classLoader instanceof URLClassLoader urlClassLoader) {
+                for (URL url : urlClassLoader.getURLs()) {
+                    // Jar names carry the library versions; their location does not matter
+                    String path = url.toString().replaceAll("[!/]+$", "");
+                    material.append(path.substring(path.lastIndexOf('/') + 1)).append('\n');
+                }
+            } else {
+                material.append(System.getProperty("java.class.path"));
+            }
+            current = sha256(material.toString());
+            fingerprint = current;
+        }
+        return current;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Errors reported by the compiler for a plugin source
+     */
+    public static class PluginCompilationException extends RuntimeException {
+
+        public PluginCompilationException(String message) {
+            super(message);
+        }
+    }
+
+    private static String describe(DiagnosticCollector<JavaFileObject> diagnostics) {
+        return diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> "line " + d.getLineNumber() + ": " + d.getMessage(null))
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Class loader defining plugin classes from bytes, one per loaded plugin version
+     */
+    private static final class PluginClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        private PluginClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+
+        private final String sourceCode;
+
+        private SourceFile(String className, String sourceCode) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.sourceCode = sourceCode;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return sourceCode;
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes;
+
+        private ClassFile(String className, ByteArrayOutputStream bytes) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Compiled class of a dependency, read through the class loader
+     */
+    private static final class LoaderClassFile extends SimpleJavaFileObject {
+
+        private final String binaryName;
+        private final String resourceName;
+        private final ClassLoader classLoader;
+
+        private LoaderClassFile(String binaryName, ClassLoader classLoader) {
+            super(URI.create("classloader:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.resourceName = binaryName.replace('.', '/') + Kind.CLASS.extension;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            InputStream in = classLoader.getResourceAsStream(resourceName);
+            if (in == null) {
+                throw new FileNotFoundException(resourceName);
+            }
+            return in;
+        }
+    }
+
+    private static final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> output;
+        private final ClassLoader classLoader;
+
+        private InMemoryFileManager(StandardJavaFileManager fileManager, Map<String, ByteArrayOutputStream> output,
+                                    ClassLoader classLoader) {
+            super(fileManager);
+            this.output = output;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new ClassFile(className, output.computeIfAbsent(className, name -> new ByteArrayOutputStream()));
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds,
+                                             boolean recurse) throws IOException {
+            if (location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS)) {
+                return super.list(location, packageName, kinds, recurse);
+            }
+            return listClasses(packageName, recurse);
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            return file instanceof LoaderClassFile loaded ? loaded.binaryName : super.inferBinaryName(location, file);
+        }
+
+        /**
+         * Classes of a package in every jar and directory the class loader sees it in
+         */
+        private List<JavaFileObject> listClasses(String packageName, boolean recurse) throws IOException {
+            List<JavaFileObject> classes = new ArrayList<>();
+            if (packageName.isEmpty()) {
+                return classes;
+            }
+            String packagePath = packageName.replace('.', '/');
+            Enumeration<URL> locations = classLoader.getResources(packagePath);
+            while (locations.hasMoreElements()) {
+                URL location = locations.nextElement();
+                URLConnection connection = location.openConnection();
+                if (connection instanceof JarURLConnection jar) {
+                    listJar(jar, packageName, recurse, classes);
+                } else if ("file".equals(location.getProtocol())) {
+                    listDirectory(location, packageName, recurse, classes);
+                }
+            }
+            return classes;
+        }
+
+        private void listJar(JarURLConnection jar, String packageName, boolean recurse, List<JavaFileObject> classes)
+                throws IOException {
+            JarFile jarFile = jar.getJarFile();
+            String prefix = jar.getEntryName() + "/";
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(prefix) && name.endsWith(JavaFileObject.Kind.CLASS.extension)
+                        && (recurse || name.indexOf('/', prefix.length()) < 0)) {
+                    String relative = name.substring(prefix.length(), name.length() - JavaFileObject.Kind.CLASS.extension.length());
+                    classes.add(new LoaderClassFile(packageName + "." + relative.replace('/', '.'), classLoader));
+                }
+            }
+        }
+
+        private void listDirectory(URL location, String packageName, boolean recurse, List<JavaFileObject> classes)
+                throws IOException {
+            Path directory;
+            try {
+                directory = Path.of(location.toURI());
+            } catch (URISyntaxException e) {
+                return;
+            }
+            try (Stream<Path> files = recurse ? Files.walk(directory) : Files.list(directory)) {
+                files.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(JavaFileObject.Kind.CLASS.extension))
+                        .forEach(file -> {
+                            String relative = directory.relativize(file).toString();
+                            relative = relative.substring(0, relative.length() - JavaFileObject.Kind.CLASS.extension.length());
+                            classes.add(new LoaderClassFile(packageName + "." + relative.replace(file.getFileSystem().getSeparator(), "."), classLoader));
+                        });
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vuog.telebotmanager.domain.entity.BotPlugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Entry point of a loaded plugin, resolved once per plugin version
+ * The execution method is bound to a MethodHandle of shape (instance, input, parameters) -> result,
+ * so executions skip the constructor lookup, the method scan and Method.invoke.
+ */
+final class PluginEntryPoint {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, String.class, Map.class);
+    private static final String[] ENTRY_METHOD_NAMES = {"execute", "process", "handle"};
+
+    private final String pluginName;
+    private final String version;
+    private final Lifecycle lifecycle;
+    private final MethodHandle invoker;
+    private final MethodHandle constructor;
+    private final Object singleton;
+
+    private PluginEntryPoint(String pluginName, String version, Lifecycle lifecycle,
+                             MethodHandle invoker, MethodHandle constructor) throws Throwable {
+        this.pluginName = pluginName;
+        this.version = version;
+        this.lifecycle = lifecycle;
+        this.invoker = invoker;
+        this.constructor = constructor;
+        this.singleton = lifecycle == Lifecycle.SINGLETON && constructor != null ? constructor.invoke() : null;
+    }
+
+    /**
+     * Resolve the entry point of a compiled plugin class
+     * The method named in the plugin wins, then execute/process/handle(String, Map), then the first method
+     * taking any of (String, Map), (String), (Map) or no arguments.
+     */
+    static PluginEntryPoint resolve(BotPlugin plugin, Class<?> pluginClass) {
+        Method method = findExecutionMethod(pluginClass, plugin.getMethodName());
+        if (method == null) {
+            throw new IllegalStateException("No suitable execution method found in plugin: " + plugin.getName());
+        }
+
+        try {
+            method.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            MethodHandle constructor = null;
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            } else {
+                Constructor<?> ctor = pluginClass.getDeclaredConstructor();
+                ctor.setAccessible(true);
+                constructor = lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+            }
+            return new PluginEntryPoint(plugin.getName(), plugin.getVersion(), lifecycleOf(plugin.getMetadata()),
+                    adapt(handle, method.getParameterTypes()), constructor);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to resolve entry point of plugin " + plugin.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Instance to invoke the entry point on; null for static entry points
+     */
+    Object instance() {
+        if (constructor == null || lifecycle == Lifecycle.SINGLETON) {
+            return singleton;
+        }
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to instantiate plugin " + pluginName + ": " + e.getMessage(), e);
+        }
+    }
+
+    Object invoke(Object instance, String input, Map<String, Object> parameters) throws Throwable {
+        return invoker.invokeExact(instance, input, parameters);
+    }
+
+    String getPluginName() {
+        return pluginName;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    private static MethodHandle adapt(MethodHandle handle, Class<?>[] params) {
+        // handle is (receiver, declared params...); pad it to (receiver, String, Map)
+        if (params.length == 0) {
+            handle = MethodHandles.dropArguments(handle, 1, String.class, Map.class);
+        } else if (params.length == 1 && params[0] == String.class) {
+            handle = MethodHandles.dropArguments(handle, 2, Map.class);
+        } else if (params.length == 1) {
+            handle = MethodHandles.dropArguments(handle, 1, String.class);
+        }
+        return handle.asType(INVOKER_TYPE);
+    }
+
+    private static Method findExecutionMethod(Class<?> clazz, String configuredName) {
+        Method[] methods = clazz.getDeclaredMethods();
+        if (configuredName != null && !configuredName.isBlank()) {
+            for (Method method : methods) {
+                if (method.getName().equals(configuredName) && isSupported(method)) {
+                    return method;
+                }
+            }
+        }
+
+        for (String name : ENTRY_METHOD_NAMES) {
+            for (Method method : methods) {
+                Class<?>[] paramTypes = method.getParameterTypes();
+                if (method.getName().equals(name) && paramTypes.length == 2
+                        && paramTypes[0] == String.class && paramTypes[1] == Map.class) {
+                    return method;
+                }
+            }
+        }
+
+        for (Method method : methods) {
+            if (!method.isSynthetic() && isSupported(method)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSupported(Method method) {
+        Class<?>[] params = method.getParameterTypes();
+        return switch (params.length) {
+            case 0 -> true;
+            case 1 -> params[0] == String.class || params[0] == Map.class;
+            case 2 -> params[0] == String.class && params[1] == Map.class;
+            default -> false;
+        };
+    }
+
+    private static Lifecycle lifecycleOf(JsonNode metadata) {
+        String configured = metadata != null ? metadata.path("lifecycle").asText("") : "";
+        return "singleton".equals(configured.trim().toLowerCase(Locale.ROOT)) ? Lifecycle.SINGLETON : Lifecycle.PER_CALL;
+    }
+
+    /**
+     * Instance lifecycle declared in plugin metadata ("lifecycle": "singleton" | "per_call")
+     * Per-call is the default since plugins were always given a fresh instance.
+     */
+    enum Lifecycle {
+        SINGLETON, PER_CALL
+    }
+}
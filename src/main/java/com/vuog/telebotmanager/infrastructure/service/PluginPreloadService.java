@@ -0,0 +1,227 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.application.usecase.PluginManagementUseCase;
+import com.vuog.telebotmanager.domain.entity.BotPlugin;
+import com.vuog.telebotmanager.domain.repository.PluginRepository;
+import com.vuog.telebotmanager.domain.service.PluginManager;
+import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for compiling and loading plugins at startup
+ * Handles DRAFT, COMPILED and ACTIVE plugins on a bounded pool, optionally warms them up,
+ * and reports per-plugin compile and warm-up times
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PluginPreloadService {
+
+    private static final List<BotPlugin.PluginStatus> PRELOAD_STATUSES = List.of(
+            BotPlugin.PluginStatus.DRAFT, BotPlugin.PluginStatus.COMPILED, BotPlugin.PluginStatus.ACTIVE);
+
+    private final PluginRepository pluginRepository;
+    private final PluginManager pluginManager;
+    private final PluginManagementUseCase pluginManagementUseCase;
+    private final AppSettings appSettings;
+
+    private final Map<String, PluginPreloadStatus> pluginStatuses = new ConcurrentHashMap<>();
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile PreloadState state = PreloadState.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * Start preloading plugins in the background
+     * The returned future completes when every plugin is loaded or has failed; it never completes exceptionally.
+     */
+    public synchronized CompletableFuture<Void> startPreload() {
+        if (state == PreloadState.RUNNING) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!appSettings.getPluginDefaults().isPreloadEnabled()) {
+            log.info("Plugin preload is disabled");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<BotPlugin> plugins = pluginRepository.findByStatusInWithSource(PRELOAD_STATUSES);
+        pluginStatuses.clear();
+        loaded.set(0);
+        failed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        if (plugins.isEmpty()) {
+            state = PreloadState.COMPLETED;
+            finishedAt = startedAt;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        plugins.forEach(plugin -> pluginStatuses.put(plugin.getId(), new PluginPreloadStatus(plugin.getId(), plugin.getName())));
+        state = PreloadState.RUNNING;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Thread.ofVirtual().name("plugin-preload").start(() -> {
+            try {
+                preloadAll(plugins);
+            } finally {
+                done.complete(null);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Get a snapshot of the preload report
+     */
+    public PreloadReport getReport() {
+        return PreloadReport.builder()
+                .state(state)
+                .total(pluginStatuses.size())
+                .loaded(loaded.get())
+                .failed(failed.get())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .plugins(pluginStatuses.values().stream()
+                        .sorted(Comparator.comparing(PluginPreloadStatus::getPluginName))
+                        .toList())
+                .build();
+    }
+
+    private void preloadAll(List<BotPlugin> plugins) {
+        int concurrency = Math.max(1, appSettings.getPluginDefaults().getPreloadConcurrency());
+        log.info("Preloading {} plugin(s), {} at a time...", plugins.size(), concurrency);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().name("plugin-preload-", 0).factory());
+        try {
+            CompletableFuture.allOf(plugins.stream()
+                            .map(plugin -> CompletableFuture.runAsync(() -> preload(plugin), executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } finally {
+            executor.shutdown();
+        }
+
+        finishedAt = LocalDateTime.now();
+        state = PreloadState.COMPLETED;
+        pluginStatuses.values().stream()
+                .sorted(Comparator.comparing(PluginPreloadStatus::getPluginName))
+                .forEach(status -> log.info("Plugin {}: {} (compile {} ms, warm-up {}){}",
+                        status.getPluginName(), status.getState(), status.getCompileTimeMs(),
+                        status.isWarmupSkipped() ? "skipped" : status.getWarmupTimeMs() + " ms",
+                        status.getError() != null ? " - " + status.getError() : ""));
+        log.info("Plugin preload finished: {} loaded, {} failed", loaded.get(), failed.get());
+    }
+
+    private void preload(BotPlugin plugin) {
+        PluginPreloadStatus status = pluginStatuses.get(plugin.getId());
+        status.setState(PluginPreloadState.COMPILING);
+        try {
+            long start = System.nanoTime();
+            if (!pluginManager.isPluginLoaded(plugin.getName())) {
+                if (plugin.getStatus() == BotPlugin.PluginStatus.DRAFT) {
+                    pluginManagementUseCase.compilePlugin(plugin.getId());
+                }
+                pluginManager.loadPlugin(plugin.getId());
+            }
+            status.setCompileTimeMs((System.nanoTime() - start) / 1_000_000);
+
+            int iterations = appSettings.getPluginDefaults().getWarmupIterations();
+            if (iterations > 0 && warmupAllowed(plugin)) {
+                status.setState(PluginPreloadState.WARMING_UP);
+                long warmupStart = System.nanoTime();
+                try {
+                    pluginManager.warmUpPlugin(plugin.getName(), warmupRequest(plugin), iterations);
+                    status.setWarmupTimeMs((System.nanoTime() - warmupStart) / 1_000_000);
+                } catch (RejectedExecutionException e) {
+                    // The plugin is loaded; real traffic already fills its bulkhead, so it warms up on its own
+                    log.info("Skipped warm-up of plugin {}: {}", plugin.getName(), e.getMessage());
+                    status.setWarmupSkipped(true);
+                }
+            }
+
+            status.setState(PluginPreloadState.LOADED);
+            loaded.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Failed to preload plugin {}: {}", plugin.getName(), e.getMessage());
+            status.setState(PluginPreloadState.FAILED);
+            status.setError(e.getMessage());
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Plugins with side effects can opt out of warm-up with "warmup": false in their metadata
+     */
+    private boolean warmupAllowed(BotPlugin plugin) {
+        return plugin.getMetadata() == null || plugin.getMetadata().path("warmup").asBoolean(true);
+    }
+
+    private CommandRequest warmupRequest(BotPlugin plugin) {
+        return CommandRequest.builder()
+                .commandId("warmup-" + plugin.getId())
+                .command(plugin.getName())
+                .inputText("")
+                .parameters(Map.of())
+                .triggeredBy("System")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Overall preload state
+     */
+    public enum PreloadState {
+        IDLE, RUNNING, COMPLETED
+    }
+
+    /**
+     * Preload state of a single plugin
+     */
+    public enum PluginPreloadState {
+        PENDING, COMPILING, WARMING_UP, LOADED, FAILED
+    }
+
+    /**
+     * Preload status of a single plugin
+     */
+    @lombok.Data
+    public static class PluginPreloadStatus {
+        private final String pluginId;
+        private final String pluginName;
+        private volatile PluginPreloadState state = PluginPreloadState.PENDING;
+        private volatile String error;
+        private volatile Long compileTimeMs;
+        private volatile Long warmupTimeMs;
+        private volatile boolean warmupSkipped;
+    }
+
+    /**
+     * Plugin preload report
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class PreloadReport {
+        private PreloadState state;
+        private int total;
+        private int loaded;
+        private int failed;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private List<PluginPreloadStatus> plugins;
+    }
+}
@@ -1,20 +1,17 @@
 package com.vuog.telebotmanager.infrastructure.service;
 
-import com.vuog.telebotmanager.application.service.BotOrchestrationService;
 import com.vuog.telebotmanager.application.service.ConfigurationService;
-import com.vuog.telebotmanager.domain.entity.Bot;
-import com.vuog.telebotmanager.domain.entity.BotHistory;
-import com.vuog.telebotmanager.domain.entity.BotRuntimeState;
-import com.vuog.telebotmanager.domain.repository.BotHistoryRepository;
-import com.vuog.telebotmanager.domain.repository.BotRepository;
-import com.vuog.telebotmanager.domain.repository.BotRuntimeStateRepository;
-import jakarta.annotation.PreDestroy;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Service for initializing the system on startup
  * Sets up default configurations and prepares the system
@@ -25,11 +22,10 @@ import org.springframework.stereotype.Component;
 public class SystemInitializationService implements ApplicationRunner {
 
     private final ConfigurationService configurationService;
-    private final BotRuntimeStateRepository botRuntimeStateRepository;
-    private final BotOrchestrationService botOrchestrationService;
-    private final BotRepository botRepository;
-    private final BotHistoryRepository botHistoryRepository;
     private final ConfigurationLoaderService configurationLoaderService;
+    private final BotRestoreService botRestoreService;
+    private final PluginPreloadService pluginPreloadService;
+    private final AppSettings appSettings;
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
@@ -60,69 +56,27 @@ public class SystemInitializationService implements ApplicationRunner {
             log.warn("Failed to load application settings from DB: {}", e.getMessage());
         }
 
+        // Preload plugins, then restore bots with suspended status, in the background so startup isn't held up.
+        // Restored bots then find their plugins already loaded; a slow preload delays the restore by a bounded time only.
+        CompletableFuture<Void> preload;
         try {
-            // Restore bots with suspended status
-            var suspendedBots = botRepository.findByStatus(Bot.BotStatus.SUSPENDED);
-            if (!suspendedBots.isEmpty()) {
-                log.info("Restoring {} bot(s) with SUSPENDED status...", suspendedBots.size());
-                for (Bot bot : suspendedBots) {
-                    try {
-                        botOrchestrationService.startBot(bot.getId());
-                        
-                        // Create history record for bot restore
-                        BotHistory history = BotHistory.createStatusChange(
-                                bot, Bot.BotStatus.SUSPENDED, Bot.BotStatus.ACTIVE, "System", "Bot restored on application startup");
-                        botHistoryRepository.save(history);
-                    } catch (Exception e) {
-                        log.error("Failed to restore suspended bot {}: {}", bot.getId(), e.getMessage());
-                        
-                        // Create history record for restoration failure
-                        try {
-                            BotHistory errorHistory = BotHistory.createErrorRecord(
-                                    bot, bot.getStatus(), "Failed to restore bot on startup: " + e.getMessage(), "System");
-                            botHistoryRepository.save(errorHistory);
-                        } catch (Exception historyError) {
-                            log.warn("Failed to save error history for bot {}: {}", bot.getId(), historyError.getMessage());
-                        }
-                    }
-                }
-            }
+            preload = pluginPreloadService.startPreload();
         } catch (Exception e) {
-            log.warn("Bot restore step skipped due to error: {}", e.getMessage());
+            log.warn("Plugin preload step skipped due to error: {}", e.getMessage());
+            preload = CompletableFuture.completedFuture(null);
         }
+        int waitSeconds = Math.max(0, appSettings.getPluginDefaults().getRestoreWaitSeconds());
+        preload.copy().orTimeout(waitSeconds, TimeUnit.SECONDS).whenComplete((ignored, error) -> {
+            if (error instanceof TimeoutException) {
+                log.warn("Plugin preload still running after {}s, restoring bots without waiting for it", waitSeconds);
+            }
+            try {
+                botRestoreService.startRestore();
+            } catch (Exception e) {
+                log.warn("Bot restore step skipped due to error: {}", e.getMessage());
+            }
+        });
 
         log.info("System configurations initialized");
     }
-
-    @PreDestroy
-    public void onShutdown() {
-        log.info("Application is shutting down...");
-        try {
-            var activeBots = botRepository.findByStatus(Bot.BotStatus.ACTIVE);
-            for (Bot bot : activeBots) {
-                try {
-                    Bot.BotStatus previousStatus = bot.getStatus();
-                    bot.suspended();
-                    botRepository.save(bot);
-                    
-                    // Create history record for shutdown
-                    BotHistory history = BotHistory.createStatusChange(
-                            bot, previousStatus, Bot.BotStatus.SUSPENDED, "System", "Bot suspended during application shutdown");
-                    botHistoryRepository.save(history);
-                    
-                    var state = botRuntimeStateRepository.findById(bot.getId()).orElse(null);
-                    if (state != null) {
-                        state.setIsRunning(false);
-                        state.setLastStoppedAt(java.time.LocalDateTime.now());
-                        botRuntimeStateRepository.save(state);
-                    }
-                } catch (Exception e) {
-                    log.error("Error shutting down bot {}: {}", bot.getId(), e.getMessage());
-                }
-            }
-            log.info("Application shutdown completed");
-        } catch (Exception e) {
-            log.warn("Error during shutdown hook: {}", e.getMessage());
-        }
-    }
 }
@@ -92,6 +92,8 @@ public class DefaultBotInstanceHandler extends BotInstanceHandler {
                 extractCommand(messageText),
                 messageText
         );
+        // Replies are sent by sendResponse, which can wait for handlers that answer asynchronously
+        request.allowDeferredResponse();
 
         // Process using command handler
         return processCommand(request);
@@ -0,0 +1,479 @@
+package com.vuog.telebotmanager.infrastructure.telegram;
+
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageCaption;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous sender for outgoing Telegram API calls of all bots
+ * Calls are queued per bot and chat, paced by token buckets for Telegram's per-bot and
+ * per-chat limits, and retried on flood control (retry_after). Other failures are retried only when the
+ * request never reached Telegram or the method is an edit, so a lost answer can't duplicate a message.
+ */
+@Component
+@Slf4j
+public class OutboundDispatcher {
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long IDLE_POLL_MS = 50;
+    /**
+     * Thrown by the Apache HTTP client behind telegrambots when a connection can't be opened in time
+     */
+    private static final String CONNECT_TIMEOUT_EXCEPTION = "org.apache.http.conn.ConnectTimeoutException";
+
+    private final AppSettings appSettings;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("telegram-send-", 0).factory());
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("telegram-send-timer").daemon(true).factory());
+
+    /**
+     * Chats waiting on the timer for a backoff or rate-limit delay
+     */
+    private final Set<ChatOutbox> delayed = ConcurrentHashMap.newKeySet();
+
+    public OutboundDispatcher(AppSettings appSettings, MeterRegistry meterRegistry) {
+        this.appSettings = appSettings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Register the sender used for a bot's outgoing calls
+     */
+    public void registerBot(Long botId, AbsSender sender) {
+        Outbox previous = outboxes.put(botId, new Outbox(botId, sender));
+        if (previous != null) {
+            previous.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * Unregister a bot; calls already queued are still sent
+     */
+    public void unregisterBot(Long botId) {
+        Outbox outbox = outboxes.remove(botId);
+        if (outbox != null) {
+            outbox.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * Queue an API call for a chat of a bot
+     * Calls for the same chat are sent in submission order; the future completes once Telegram answers.
+     */
+    public <T extends Serializable> CompletableFuture<T> submit(Long botId, String chatId, BotApiMethod<T> method) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Outbox outbox = outboxes.get(botId);
+        if (outbox == null) {
+            result.completeExceptionally(new IllegalStateException("Bot " + botId + " is not running"));
+            return result;
+        }
+
+        AppSettings.TelegramSettings settings = appSettings.getTelegram();
+        if (outbox.pending.incrementAndGet() > settings.getOutboundQueueCapacity()) {
+            outbox.pending.decrementAndGet();
+            outbox.failed.increment();
+            result.completeExceptionally(new RejectedExecutionException("Outbound queue full for bot " + botId));
+            return result;
+        }
+
+        // Enqueue inside compute so an idle chat can't be removed between lookup and add
+        OutboundCall<T> call = new OutboundCall<>(method, result);
+        ChatOutbox chat = outbox.chats.compute(chatId, (key, existing) -> {
+            ChatOutbox target = existing != null ? existing : new ChatOutbox(outbox, key, chatBucket(key, settings));
+            target.calls.add(call);
+            return target;
+        });
+        chat.schedule(0);
+        return result;
+    }
+
+    /**
+     * Send a placeholder message to a chat and return a reply that edits it as text arrives
+     */
+    public ProgressiveReply openProgressiveReply(Long botId, String chatId, String placeholderText) {
+        return new ProgressiveReply(this, botId, chatId, placeholderText,
+                Duration.ofMillis(Math.max(0, appSettings.getTelegram().getOutboundEditIntervalMs())));
+    }
+
+    /**
+     * Check if a bot's outgoing calls can be sent
+     */
+    public boolean isRegistered(Long botId) {
+        return outboxes.containsKey(botId);
+    }
+
+    /**
+     * Number of calls queued or in flight for a bot
+     */
+    public int getPendingCount(Long botId) {
+        Outbox outbox = outboxes.get(botId);
+        return outbox != null ? outbox.pending.get() : 0;
+    }
+
+    /**
+     * Wait until no calls are queued or in flight, or the timeout elapses
+     * Returns the number of calls still pending
+     */
+    public int awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int pending = getTotalPendingCount();
+        while (pending > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(IDLE_POLL_MS);
+            pending = getTotalPendingCount();
+        }
+        return pending;
+    }
+
+    private int getTotalPendingCount() {
+        return outboxes.values().stream().mapToInt(outbox -> outbox.pending.get()).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Delayed sends are dropped with the timer; fail their calls so callers don't wait forever
+        timer.shutdownNow();
+        for (ChatOutbox chat : List.copyOf(delayed)) {
+            if (delayed.remove(chat)) {
+                chat.scheduled.set(false);
+                chat.failAll(new IllegalStateException("Outbound dispatcher is shutting down"));
+            }
+        }
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            senders.shutdownNow();
+        }
+    }
+
+    /**
+     * Group chats (negative ids) are limited per minute, private chats per second
+     */
+    private TokenBucket chatBucket(String chatId, AppSettings.TelegramSettings settings) {
+        if (chatId.startsWith("-")) {
+            int perMinute = Math.max(1, settings.getOutboundGroupPerMinute());
+            return new TokenBucket(perMinute, perMinute / 60.0);
+        }
+        double perSecond = Math.max(0.1, settings.getOutboundChatPerSecond());
+        return new TokenBucket(Math.max(1, (int) perSecond), perSecond);
+    }
+
+    /**
+     * Token bucket refilled continuously; callers are told how long to wait instead of blocking
+     */
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(int capacity, double tokensPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+        }
+
+        /**
+         * Nanos until a token is available, 0 if one is available now
+         */
+        private synchronized long waitNanos() {
+            refill();
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        /**
+         * Take a token if available, otherwise return nanos to wait
+         */
+        private synchronized long tryAcquire() {
+            long wait = waitNanos();
+            if (wait == 0) {
+                tokens -= 1;
+            }
+            return wait;
+        }
+
+        private synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+
+    private record OutboundCall<T extends Serializable>(BotApiMethod<T> method, CompletableFuture<T> result) {
+    }
+
+    /**
+     * Per-bot queue state, rate limit and meters
+     */
+    private final class Outbox {
+
+        private final Long botId;
+        private final AbsSender sender;
+        private final Map<String, ChatOutbox> chats = new ConcurrentHashMap<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final TokenBucket bucket;
+        private volatile long pausedUntil;
+
+        private final Counter sent;
+        private final Counter failed;
+        private final Counter throttled;
+        private final List<Meter> meters;
+
+        private Outbox(Long botId, AbsSender sender) {
+            this.botId = botId;
+            this.sender = sender;
+            int perSecond = Math.max(1, appSettings.getTelegram().getOutboundBotPerSecond());
+            this.bucket = new TokenBucket(perSecond, perSecond);
+
+            String bot = String.valueOf(botId);
+            Gauge pendingGauge = Gauge.builder("telegram.outbound.pending", pending, AtomicInteger::get)
+                    .description("Outgoing calls queued or in flight for a bot")
+                    .tag("bot", bot)
+                    .register(meterRegistry);
+            this.sent = Counter.builder("telegram.outbound.sent")
+                    .description("Outgoing calls accepted by Telegram")
+                    .tag("bot", bot)
+                    .register(meterRegistry);
+            this.failed = Counter.builder("telegram.outbound.failed")
+                    .description("Outgoing calls rejected or given up after retries")
+                    .tag("bot", bot)
+                    .register(meterRegistry);
+            this.throttled = Counter.builder("telegram.outbound.throttled")
+                    .description("Outgoing calls answered with 429 by Telegram")
+                    .tag("bot", bot)
+                    .register(meterRegistry);
+            this.meters = List.of(pendingGauge, sent, failed, throttled);
+        }
+    }
+
+    /**
+     * Serial queue of one chat; at most one call of a chat is in flight
+     */
+    private final class ChatOutbox implements Runnable {
+
+        private final Outbox outbox;
+        private final String chatId;
+        private final TokenBucket bucket;
+        private final Queue<OutboundCall<?>> calls = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private int attempts;
+
+        private ChatOutbox(Outbox outbox, String chatId, TokenBucket bucket) {
+            this.outbox = outbox;
+            this.chatId = chatId;
+            this.bucket = bucket;
+        }
+
+        private void schedule(long delayNanos) {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (delayNanos <= 0) {
+                    senders.execute(this);
+                } else {
+                    delayed.add(this);
+                    timer.schedule(this::wake, delayNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (RejectedExecutionException e) {
+                delayed.remove(this);
+                scheduled.set(false);
+                failAll(new IllegalStateException("Outbound dispatcher is shutting down"));
+            }
+        }
+
+        /**
+         * Hand the chat to a sender once its delay has passed
+         */
+        private void wake() {
+            if (!delayed.remove(this)) {
+                // Already failed by shutdown
+                return;
+            }
+            try {
+                senders.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                failAll(new IllegalStateException("Outbound dispatcher is shutting down"));
+            }
+        }
+
+        @Override
+        public void run() {
+            OutboundCall<?> call = calls.peek();
+            if (call == null) {
+                release(0);
+                return;
+            }
+
+            long wait = Math.max(outbox.pausedUntil - System.nanoTime(), bucket.waitNanos());
+            if (wait <= 0) {
+                wait = outbox.bucket.tryAcquire();
+            }
+            if (wait > 0) {
+                release(wait);
+                return;
+            }
+            bucket.tryAcquire();
+
+            long retryDelay = send(call);
+            if (retryDelay < 0) {
+                calls.poll();
+                attempts = 0;
+                outbox.pending.decrementAndGet();
+            }
+            release(Math.max(retryDelay, 0));
+        }
+
+        /**
+         * Send the call and complete its future; returns the delay before a retry, or -1 when done
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private long send(OutboundCall call) {
+            try {
+                Serializable response = outbox.sender.execute(call.method());
+                outbox.sent.increment();
+                call.result().complete(response);
+                return -1;
+            } catch (TelegramApiRequestException e) {
+                Integer retryAfter = e.getParameters() != null ? e.getParameters().getRetryAfter() : null;
+                if (retryAfter != null) {
+                    // Flood control applies to the whole bot, not just this chat
+                    long delay = TimeUnit.SECONDS.toNanos(retryAfter);
+                    outbox.pausedUntil = System.nanoTime() + delay;
+                    outbox.throttled.increment();
+                    log.warn("Telegram rate limit hit for bot {}, pausing sends for {}s", outbox.botId, retryAfter);
+                    return delay;
+                }
+                Integer code = e.getErrorCode();
+                boolean transientError = code == null || code >= 500;
+                // Telegram may have acted on the call before the server error, so only safe calls are repeated
+                return transientError && isIdempotent(call.method()) ? retryOrFail(call, e) : fail(call, e);
+            } catch (TelegramApiException e) {
+                // A timeout or reset may come after Telegram accepted the call; repeating it could duplicate a message
+                return isUnsent(e) || isIdempotent(call.method()) ? retryOrFail(call, e) : fail(call, e);
+            } catch (Exception e) {
+                return fail(call, e);
+            }
+        }
+
+        /**
+         * Check if the failure happened before the request reached Telegram
+         */
+        private boolean isUnsent(Throwable e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                        || cause instanceof NoRouteToHostException
+                        || CONNECT_TIMEOUT_EXCEPTION.equals(cause.getClass().getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Edits leave the same state however often they are applied
+         */
+        private boolean isIdempotent(BotApiMethod<?> method) {
+            return method instanceof EditMessageText || method instanceof EditMessageReplyMarkup
+                    || method instanceof EditMessageCaption;
+        }
+
+        private long retryOrFail(OutboundCall<?> call, Exception e) {
+            if (++attempts > appSettings.getTelegram().getOutboundMaxRetries()) {
+                return fail(call, e);
+            }
+            long delay = Math.min(MAX_BACKOFF_NANOS, TimeUnit.MILLISECONDS.toNanos(500L << Math.min(attempts - 1, 10)));
+            log.debug("Retrying call to chat {} of bot {} (attempt {}): {}", chatId, outbox.botId, attempts, e.getMessage());
+            return delay;
+        }
+
+        private long fail(OutboundCall<?> call, Exception e) {
+            outbox.failed.increment();
+            call.result().completeExceptionally(e);
+            return -1;
+        }
+
+        private void release(long delayNanos) {
+            scheduled.set(false);
+            if (!calls.isEmpty()) {
+                schedule(delayNanos);
+            } else {
+                removeIfIdle();
+            }
+        }
+
+        /**
+         * Drop an idle chat once its bucket has refilled, so a quick follow-up is still paced
+         */
+        private void removeIfIdle() {
+            outbox.chats.computeIfPresent(chatId, (k, c) -> {
+                if (c != this || !c.calls.isEmpty() || c.scheduled.get()) {
+                    return c;
+                }
+                if (c.bucket.isFull()) {
+                    return null;
+                }
+                try {
+                    timer.schedule(this::removeIfIdle, 1, TimeUnit.SECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                }
+                return c;
+            });
+        }
+
+        private void failAll(Exception e) {
+            OutboundCall<?> call;
+            while ((call = calls.poll()) != null) {
+                outbox.pending.decrementAndGet();
+                outbox.failed.increment();
+                call.result().completeExceptionally(e);
+            }
+        }
+    }
+}
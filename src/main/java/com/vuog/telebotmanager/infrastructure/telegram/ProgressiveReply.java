@@ -0,0 +1,102 @@
+package com.vuog.telebotmanager.infrastructure.telegram;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reply shown as a placeholder message that is edited as text arrives
+ * Edits are throttled and chained, so at most one is queued at a time and the final text is always sent last.
+ */
+@Slf4j
+public final class ProgressiveReply {
+
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+
+    private final OutboundDispatcher dispatcher;
+    private final Long botId;
+    private final String chatId;
+    private final long editIntervalNanos;
+    private final CompletableFuture<Message> placeholder;
+    private final StringBuilder text = new StringBuilder();
+
+    private CompletableFuture<?> tail;
+    private String shownText;
+    private long lastEditAt;
+
+    ProgressiveReply(OutboundDispatcher dispatcher, Long botId, String chatId, String placeholderText, Duration editInterval) {
+        this.dispatcher = dispatcher;
+        this.botId = botId;
+        this.chatId = chatId;
+        this.editIntervalNanos = editInterval.toNanos();
+
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        message.setText(placeholderText);
+        this.placeholder = dispatcher.submit(botId, chatId, message);
+        this.tail = placeholder;
+        this.shownText = placeholderText;
+        this.lastEditAt = System.nanoTime() - editIntervalNanos;
+    }
+
+    /**
+     * Append a chunk of text; the message is edited if the previous edit is done and the interval has passed
+     */
+    public synchronized void append(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        text.append(chunk);
+        long now = System.nanoTime();
+        if (tail.isDone() && now - lastEditAt >= editIntervalNanos) {
+            lastEditAt = now;
+            edit(text.toString());
+        }
+    }
+
+    /**
+     * Show the final text
+     * If the placeholder could not be sent or edited, the text is sent as a new message instead.
+     */
+    public synchronized CompletableFuture<Void> complete(String finalText) {
+        return edit(finalText)
+                .<CompletableFuture<?>>handle((result, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    log.warn("Progressive reply to chat {} failed, sending as a new message: {}", chatId, error.getMessage());
+                    SendMessage message = new SendMessage();
+                    message.setChatId(chatId);
+                    message.setText(clip(finalText));
+                    return dispatcher.submit(botId, chatId, message);
+                })
+                .thenCompose(future -> future.thenApply(ignored -> (Void) null));
+    }
+
+    private CompletableFuture<?> edit(String value) {
+        String clipped = clip(value);
+        if (clipped.isBlank() || clipped.equals(shownText)) {
+            return tail;
+        }
+        shownText = clipped;
+        CompletableFuture<Serializable> next = tail
+                .handle((result, error) -> null)
+                .thenCompose(ignored -> placeholder)
+                .thenCompose(message -> dispatcher.submit(botId, chatId, EditMessageText.builder()
+                        .chatId(chatId)
+                        .messageId(message.getMessageId())
+                        .text(clipped)
+                        .build()));
+        tail = next;
+        return next;
+    }
+
+    private static String clip(String value) {
+        return value.length() > MAX_MESSAGE_LENGTH ? value.substring(0, MAX_MESSAGE_LENGTH) : value;
+    }
+}
@@ -0,0 +1,279 @@
+package com.vuog.telebotmanager.infrastructure.telegram;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-polling engine shared by all polling bots
+ * Drives getUpdates for every registered bot with non-blocking HTTP on a small shared pool,
+ * tracking per-bot offsets and pausing a bot while its update queue is full.
+ */
+@Slf4j
+public class SharedPollingEngine {
+
+    private static final TypeReference<ApiResponse<ArrayList<Update>>> UPDATES_TYPE = new TypeReference<>() {
+    };
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long BACKPRESSURE_DELAY_MS = 250;
+    private static final int MAX_BATCH = 100;
+
+    private final ObjectMapper objectMapper;
+    private final UpdateScheduler updateScheduler;
+    private final AppSettings appSettings;
+
+    private final Map<Long, PollingBot> bots = new ConcurrentHashMap<>();
+    private volatile Runtime runtime;
+
+    public SharedPollingEngine(ObjectMapper objectMapper, UpdateScheduler updateScheduler, AppSettings appSettings) {
+        this.objectMapper = objectMapper;
+        this.updateScheduler = updateScheduler;
+        this.appSettings = appSettings;
+    }
+
+    /**
+     * Start polling for a bot; any webhook must already be cleared
+     */
+    public void register(Long botId, TelegramBotInstance botInstance) {
+        PollingBot pollingBot = new PollingBot(botId, botInstance);
+        PollingBot previous = bots.put(botId, pollingBot);
+        if (previous != null) {
+            previous.stop();
+        }
+        runtime().executor.execute(() -> poll(pollingBot));
+        log.info("Bot {} registered with shared polling engine ({} bots polling)", botId, bots.size());
+    }
+
+    /**
+     * Stop polling for a bot
+     * The returned future completes once no getUpdates request of the bot is in flight.
+     */
+    public CompletableFuture<Void> unregister(Long botId) {
+        PollingBot pollingBot = bots.remove(botId);
+        if (pollingBot == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        pollingBot.stop();
+        return pollingBot.stopped;
+    }
+
+    /**
+     * Check if a bot is polled by this engine
+     */
+    public boolean isPolling(Long botId) {
+        return bots.containsKey(botId);
+    }
+
+    public void shutdown() {
+        List.copyOf(bots.keySet()).forEach(this::unregister);
+        Runtime current = runtime;
+        if (current != null) {
+            current.scheduler.shutdownNow();
+            current.executor.shutdownNow();
+        }
+    }
+
+    private void poll(PollingBot bot) {
+        if (!bot.active) {
+            bot.stopped.complete(null);
+            return;
+        }
+
+        // Backpressure: don't fetch more than the bot's queue can take
+        int capacity = appSettings.getTelegram().getUpdateQueueCapacity() - updateScheduler.getPendingCount(bot.botId);
+        if (capacity <= 0) {
+            schedule(bot, BACKPRESSURE_DELAY_MS);
+            return;
+        }
+
+        int timeout = Math.max(1, appSettings.getTelegram().getLongPollTimeoutSeconds());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(bot.updatesUrl
+                        + "?offset=" + bot.offset
+                        + "&limit=" + Math.min(MAX_BATCH, capacity)
+                        + "&timeout=" + timeout))
+                .timeout(Duration.ofSeconds(timeout + 15L))
+                .GET()
+                .build();
+
+        CompletableFuture<HttpResponse<byte[]>> call = runtime().httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        bot.inFlight = call;
+        if (!bot.active) {
+            // Stopped while the request was being issued
+            call.cancel(true);
+        }
+        call.whenComplete((response, error) -> {
+            bot.inFlight = null;
+            try {
+                onResponse(bot, response, error);
+            } catch (Exception e) {
+                log.error("Polling failed for bot {}: {}", bot.botId, e.getMessage(), e);
+                backoff(bot);
+            }
+        });
+    }
+
+    private void onResponse(PollingBot bot, HttpResponse<byte[]> response, Throwable error) throws Exception {
+        if (!bot.active) {
+            bot.stopped.complete(null);
+            return;
+        }
+
+        if (error != null) {
+            if (!(error instanceof CancellationException)) {
+                log.warn("getUpdates failed for bot {}: {}", bot.botId, error.getMessage());
+            }
+            backoff(bot);
+            return;
+        }
+
+        ApiResponse<ArrayList<Update>> body = objectMapper.readValue(response.body(), UPDATES_TYPE);
+        if (response.statusCode() == 200 && Boolean.TRUE.equals(body.getOk())) {
+            bot.failures = 0;
+            deliver(bot, body.getResult());
+            poll(bot);
+            return;
+        }
+
+        switch (response.statusCode()) {
+            case 401, 404 -> {
+                log.error("Bot {} token rejected by Telegram ({}), polling stopped", bot.botId, body.getErrorDescription());
+                bots.remove(bot.botId, bot);
+                bot.stop();
+                bot.stopped.complete(null);
+            }
+            case 429 -> {
+                Integer retryAfter = body.getParameters() != null ? body.getParameters().getRetryAfter() : null;
+                schedule(bot, retryAfter != null ? retryAfter * 1000L : nextBackoff(bot));
+            }
+            default -> {
+                // 409: webhook set or another getUpdates still open for this token
+                log.warn("getUpdates for bot {} returned {}: {}", bot.botId, response.statusCode(), body.getErrorDescription());
+                backoff(bot);
+            }
+        }
+    }
+
+    /**
+     * Dispatch updates in order; stop at the first one the scheduler rejects so it is fetched again
+     */
+    private void deliver(PollingBot bot, List<Update> updates) {
+        if (updates == null) {
+            return;
+        }
+        for (Update update : updates) {
+            if (!bot.instance.dispatch(update)) {
+                log.debug("Update queue of bot {} full, re-fetching from update {}", bot.botId, update.getUpdateId());
+                return;
+            }
+            bot.offset = update.getUpdateId() + 1L;
+        }
+    }
+
+    private void backoff(PollingBot bot) {
+        schedule(bot, nextBackoff(bot));
+    }
+
+    private long nextBackoff(PollingBot bot) {
+        bot.failures = Math.min(bot.failures + 1, 16);
+        return Math.min(MAX_BACKOFF_MS, 500L << Math.min(bot.failures - 1, 10));
+    }
+
+    private void schedule(PollingBot bot, long delayMs) {
+        try {
+            runtime().scheduler.schedule(() -> runtime().executor.execute(() -> poll(bot)), delayMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Engine shutting down
+            bot.stopped.complete(null);
+        }
+    }
+
+    /**
+     * Create the shared pool on first use, after settings are loaded
+     */
+    private Runtime runtime() {
+        Runtime current = runtime;
+        if (current == null) {
+            synchronized (this) {
+                current = runtime;
+                if (current == null) {
+                    current = new Runtime(Math.max(1, appSettings.getTelegram().getPollingThreads()));
+                    runtime = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Threads shared by all polled bots
+     */
+    private static final class Runtime {
+
+        private final ExecutorService executor;
+        private final ScheduledExecutorService scheduler;
+        private final HttpClient httpClient;
+
+        private Runtime(int threads) {
+            this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("telegram-poll-", 0).daemon(true).factory());
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("telegram-poll-timer").daemon(true).factory());
+            // Each long poll holds its connection for the whole timeout; HTTP/1.1 keeps them independent
+            this.httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(executor)
+                    .build();
+        }
+    }
+
+    /**
+     * Polling state of one bot
+     */
+    private static final class PollingBot {
+
+        private final Long botId;
+        private final TelegramBotInstance instance;
+        private final String updatesUrl;
+        private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+
+        private volatile boolean active = true;
+        private volatile long offset;
+        private volatile int failures;
+        private volatile CompletableFuture<?> inFlight;
+
+        private PollingBot(Long botId, TelegramBotInstance instance) {
+            this.botId = botId;
+            this.instance = instance;
+            this.updatesUrl = instance.getOptions().getBaseUrl() + instance.getBotToken() + "/getUpdates";
+        }
+
+        private void stop() {
+            active = false;
+            CompletableFuture<?> call = inFlight;
+            if (call != null) {
+                // Aborts the open long poll so Telegram releases the getUpdates slot
+                call.cancel(true);
+            } else {
+                stopped.complete(null);
+            }
+        }
+    }
+}
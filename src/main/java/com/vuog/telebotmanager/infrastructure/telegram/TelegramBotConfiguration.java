@@ -1,5 +1,7 @@
 package com.vuog.telebotmanager.infrastructure.telegram;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
@@ -23,4 +25,13 @@ public class TelegramBotConfiguration {
             throw new RuntimeException("Failed to create TelegramBotsApi", e);
         }
     }
+
+    /**
+     * Creates the polling engine shared by all long-polling bots
+     */
+    @Bean(destroyMethod = "shutdown")
+    public SharedPollingEngine sharedPollingEngine(ObjectMapper objectMapper, UpdateScheduler updateScheduler,
+                                                   AppSettings appSettings) {
+        return new SharedPollingEngine(objectMapper, updateScheduler, appSettings);
+    }
 }
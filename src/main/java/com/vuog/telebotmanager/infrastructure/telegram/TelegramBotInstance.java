@@ -2,16 +2,20 @@ package com.vuog.telebotmanager.infrastructure.telegram;
 
 import com.vuog.telebotmanager.domain.entity.Bot;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.util.TelegramUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Individual Telegram bot instance that handles messages for a specific bot
- * Each bot gets its own instance that processes messages from users
+ * Each bot gets its own instance that processes messages from users.
+ * In webhook mode the instance is not registered for polling and only sends messages.
  */
 @RequiredArgsConstructor
 @Slf4j
@@ -19,15 +23,40 @@ public class TelegramBotInstance extends TelegramLongPollingBot {
 
     private final Bot bot;
     private final BotInstanceHandler botHandler;
+    private final UpdateScheduler updateScheduler;
+    private final OutboundDispatcher outboundDispatcher;
+    private volatile boolean intakeOpen = true;
 
     @Override
     public void onUpdateReceived(Update update) {
-        try {
-            // Delegate to the bot handler
-            botHandler.handleUpdate(update);
-        } catch (Exception e) {
-            log.error("Error in bot handler for bot {}: {}", bot.getBotUsername(), e.getMessage(), e);
+        if (!dispatch(update)) {
+            log.warn("Update queue full for bot {}, dropping update {}", bot.getBotUsername(), update.getUpdateId());
+        }
+    }
+
+    /**
+     * Hand an update to the shared scheduler so the receiving thread never waits on a handler
+     * Used by both long polling and the webhook endpoint; returns false if the update was not accepted
+     */
+    public boolean dispatch(Update update) {
+        if (!intakeOpen) {
+            return false;
         }
+        return updateScheduler.submit(bot.getId(), TelegramUtils.chatKey(update), () -> {
+            try {
+                // Delegate to the bot handler
+                botHandler.handleUpdate(update);
+            } catch (Exception e) {
+                log.error("Error in bot handler for bot {}: {}", bot.getBotUsername(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Stop accepting updates; replies can still be sent
+     */
+    public void closeIntake() {
+        intakeOpen = false;
     }
 
     @Override
@@ -42,37 +71,42 @@ public class TelegramBotInstance extends TelegramLongPollingBot {
 
     /**
      * Send response to user
+     * The message is queued on the outbound dispatcher; the returned future completes once it is delivered.
+     * Responses already shown in the chat (streamed replies) are not sent again; pending responses are sent once complete.
      */
-    public void sendResponse(String chatId, CommandResponse response) {
-        try {
-            SendMessage message = new SendMessage();
-            message.setChatId(chatId);
-            message.setText(response.getResponseText());
-            message.setParseMode("HTML");
-
-            execute(message);
-
-            log.info("Response sent to chat {}: {}", chatId, response.getResponseText());
-
-        } catch (TelegramApiException e) {
-            log.error("Error sending response to chat {}: {}", chatId, e.getMessage());
+    public CompletableFuture<Message> sendResponse(String chatId, CommandResponse response) {
+        if (response.isPending()) {
+            CompletableFuture<Message> delivery = response.getCompletion().thenCompose(done -> sendResponse(chatId, done));
+            // Counted as pending so the shutdown drain waits for the deferred reply
+            updateScheduler.trackDeferred(bot.getId(), delivery);
+            return delivery;
+        }
+        if (response.isDelivered()) {
+            return CompletableFuture.completedFuture(null);
         }
+        return send(chatId, response.getResponseText());
     }
 
     /**
      * Send error response to user
      */
-    public void sendErrorResponse(String chatId, String errorMessage) {
-        try {
-            SendMessage message = new SendMessage();
-            message.setChatId(chatId);
-            message.setText("❌ " + errorMessage);
-            message.setParseMode("HTML");
+    public CompletableFuture<Message> sendErrorResponse(String chatId, String errorMessage) {
+        return send(chatId, "❌ " + errorMessage);
+    }
 
-            execute(message);
+    private CompletableFuture<Message> send(String chatId, String text) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        message.setText(text);
+        message.setParseMode("HTML");
 
-        } catch (TelegramApiException e) {
-            log.error("Error sending error response to chat {}: {}", chatId, e.getMessage());
-        }
+        return outboundDispatcher.submit(bot.getId(), chatId, message)
+                .whenComplete((sent, error) -> {
+                    if (error != null) {
+                        log.error("Error sending response to chat {}: {}", chatId, error.getMessage());
+                    } else {
+                        log.info("Response sent to chat {}: {}", chatId, text);
+                    }
+                });
     }
 }
@@ -3,14 +3,30 @@ package com.vuog.telebotmanager.infrastructure.telegram;
 import com.vuog.telebotmanager.application.service.BotLifecycleService;
 import com.vuog.telebotmanager.domain.entity.Bot;
 import com.vuog.telebotmanager.domain.repository.BotRepository;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.methods.updates.GetWebhookInfo;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.WebhookInfo;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.generics.BotSession;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for managing Telegram bot instances
@@ -21,18 +37,30 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class TelegramBotService {
 
+    /**
+     * Path of the shared webhook endpoint, see TelegramWebhookController
+     */
+    public static final String WEBHOOK_PATH = "/telegram/webhook";
+
     private final BotRepository botRepository;
     private final BotLifecycleService botLifecycleService;
     private final BotHandlerFactory botHandlerFactory;
     private final TelegramBotsApi telegramBotsApi;
+    private final UpdateScheduler updateScheduler;
+    private final SharedPollingEngine sharedPollingEngine;
+    private final OutboundDispatcher outboundDispatcher;
+    private final AppSettings appSettings;
 
     // Cache for active bot instances
     private final Map<Long, TelegramBotInstance> activeBots = new ConcurrentHashMap<>();
+    private final Map<Long, String> webhookSecrets = new ConcurrentHashMap<>();
+    private final Map<Long, BotSession> pollingSessions = new ConcurrentHashMap<>();
+    private volatile boolean intakeOpen = true;
 
     /**
      * Start a Telegram bot instance
+     * Runs without a transaction: the polling handshake may wait several seconds for a 409 conflict to clear.
      */
-    @Transactional
     public void startTelegramBot(Long botId) {
         log.info("Starting Telegram bot instance for bot ID: {}", botId);
 
@@ -43,13 +71,9 @@ public class TelegramBotService {
         if (activeBots.containsKey(botId)) {
             log.warn("Telegram bot instance already exists for bot ID: {}, stopping existing instance...", botId);
             try {
+                // Returns once the old polling connection is closed
                 stopTelegramBot(botId);
-                // Wait longer for the bot to fully stop and Telegram to process
-                Thread.sleep(3000); // Increased to 3 seconds for better reliability
                 log.info("Existing bot instance stopped, proceeding with new instance...");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.warn("Interrupted while waiting for bot to stop");
             } catch (Exception e) {
                 log.error("Error stopping existing bot instance", e);
                 // Continue anyway to attempt restart
@@ -60,23 +84,38 @@ public class TelegramBotService {
             // Create bot handler using factory
             BotInstanceHandler botHandler = botHandlerFactory.createHandler(bot);
 
-            // Create bot instance
-            TelegramBotInstance botInstance = new TelegramBotInstance(bot, botHandler);
+            // Create bot instance; its updates go through the shared scheduler
+            updateScheduler.registerBot(botId, bot.getBotUsername());
+            TelegramBotInstance botInstance = new TelegramBotInstance(bot, botHandler, updateScheduler, outboundDispatcher);
+            outboundDispatcher.registerBot(botId, botInstance);
 
             // Set the bot instance in the handler for sending messages
             if (botHandler instanceof DefaultBotInstanceHandler) {
                 ((DefaultBotInstanceHandler) botHandler).setTelegramBotInstance(botInstance);
             }
 
-            // Register bot with Telegram API
-            // This may throw TelegramApiRequestException if another instance is running
-            telegramBotsApi.registerBot(botInstance);
+            IngestionMode mode = resolveIngestionMode(bot);
+            if (mode == IngestionMode.WEBHOOK) {
+                // Telegram pushes updates to the shared webhook endpoint
+                registerWebhook(bot, botInstance);
+            } else if (usesSharedPolling()) {
+                // getUpdates fails with 409 while a webhook is set
+                botInstance.clearWebhook();
+                awaitPollingReady(botInstance);
+                sharedPollingEngine.register(botId, botInstance);
+            } else {
+                // Register bot with Telegram API
+                // This may throw TelegramApiRequestException if another instance is running
+                botInstance.clearWebhook();
+                awaitPollingReady(botInstance);
+                pollingSessions.put(botId, telegramBotsApi.registerBot(botInstance));
+            }
 
             // Store reference
             activeBots.put(botId, botInstance);
 
-            log.info("Telegram bot instance started successfully for bot ID: {} (username: {})",
-                    botId, bot.getBotUsername());
+            log.info("Telegram bot instance started successfully for bot ID: {} (username: {}, mode: {})",
+                    botId, bot.getBotUsername(), mode);
 
         } catch (org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException e) {
             if (e.getErrorCode() == 409) {
@@ -87,16 +126,22 @@ public class TelegramBotService {
                         "3. Webhook mode is enabled (conflicts with long polling)\n" +
                         "Please ensure only one instance is running and no webhook is set.", botId);
                 activeBots.remove(botId);
+                updateScheduler.unregisterBot(botId);
+                outboundDispatcher.unregisterBot(botId);
                 throw new RuntimeException("Telegram bot conflict: Another instance is running. " +
                         "Make sure only one bot instance is running and webhook is not enabled.", e);
             } else {
                 log.error("Error starting Telegram bot instance for bot ID: {}", botId, e);
                 activeBots.remove(botId);
+                updateScheduler.unregisterBot(botId);
+                outboundDispatcher.unregisterBot(botId);
                 throw new RuntimeException("Failed to start Telegram bot instance", e);
             }
         } catch (Exception e) {
             log.error("Error starting Telegram bot instance for bot ID: {}", botId, e);
             activeBots.remove(botId);
+            updateScheduler.unregisterBot(botId);
+            outboundDispatcher.unregisterBot(botId);
             throw new RuntimeException("Failed to start Telegram bot instance", e);
         }
     }
@@ -104,24 +149,24 @@ public class TelegramBotService {
     /**
      * Stop a Telegram bot instance
      */
-    @Transactional
     public void stopTelegramBot(Long botId) {
         log.info("Stopping Telegram bot instance for bot ID: {}", botId);
 
         try {
             // Get bot instance
             TelegramBotInstance botInstance = activeBots.get(botId);
+            awaitPollingStopped(botId);
 
             if (botInstance != null) {
                 try {
                     // Clear webhook and close bot session to properly deregister
                     log.info("Clearing bot session and closing connection for bot ID: {}", botId);
                     
-                    // Delete webhook to ensure clean state
+                    // Delete webhook to ensure clean state; pending updates stay queued for the next start
                     try {
                         org.telegram.telegrambots.meta.api.methods.updates.DeleteWebhook deleteWebhook = 
                             new org.telegram.telegrambots.meta.api.methods.updates.DeleteWebhook();
-                        deleteWebhook.setDropPendingUpdates(true);
+                        deleteWebhook.setDropPendingUpdates(false);
                         botInstance.execute(deleteWebhook);
                         log.info("Webhook deleted for bot ID: {}", botId);
                     } catch (Exception e) {
@@ -135,6 +180,9 @@ public class TelegramBotService {
 
             // Remove from active bots - this must happen after clearing
             activeBots.remove(botId);
+            webhookSecrets.remove(botId);
+            updateScheduler.unregisterBot(botId);
+            outboundDispatcher.unregisterBot(botId);
 
             log.info("Telegram bot instance stopped successfully for bot ID: {}", botId);
 
@@ -142,6 +190,9 @@ public class TelegramBotService {
             log.error("Error stopping Telegram bot instance for bot ID: {}", botId, e);
             // Still remove from active bots even if there's an error
             activeBots.remove(botId);
+            webhookSecrets.remove(botId);
+            updateScheduler.unregisterBot(botId);
+            outboundDispatcher.unregisterBot(botId);
             throw new RuntimeException("Failed to stop Telegram bot instance", e);
         }
     }
@@ -149,22 +200,11 @@ public class TelegramBotService {
     /**
      * Restart a Telegram bot instance
      */
-    @Transactional
     public void restartTelegramBot(Long botId) {
         log.info("Restarting Telegram bot instance for bot ID: {}", botId);
 
+        // Stop returns once polling has closed; start retries any remaining 409 conflict
         stopTelegramBot(botId);
-        
-        // Wait for Telegram to fully process the bot stop before restarting
-        // This prevents 409 conflicts
-        try {
-            log.info("Waiting for bot to fully stop before restart...");
-            Thread.sleep(2000); // Wait 2 seconds for Telegram to process
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Interrupted while waiting for bot to stop");
-        }
-        
         startTelegramBot(botId);
     }
 
@@ -175,10 +215,183 @@ public class TelegramBotService {
         return activeBots.containsKey(botId);
     }
 
+    /**
+     * Hand an update received on the webhook endpoint to the bot's pipeline
+     * The secret from the path and, when present, Telegram's secret header must both match
+     */
+    public WebhookDelivery handleWebhookUpdate(Long botId, String secret, String secretHeader, Update update) {
+        if (!intakeOpen) {
+            return WebhookDelivery.UNAVAILABLE;
+        }
+        String expected = webhookSecrets.get(botId);
+        TelegramBotInstance botInstance = activeBots.get(botId);
+        if (expected == null || botInstance == null || !secretMatches(expected, secret)
+                || (secretHeader != null && !secretMatches(expected, secretHeader))) {
+            return WebhookDelivery.REJECTED;
+        }
+        return botInstance.dispatch(update) ? WebhookDelivery.ACCEPTED : WebhookDelivery.BUSY;
+    }
+
+    /**
+     * Stop taking updates for all bots before shutdown
+     * Webhook deliveries are refused and polling is closed; instances stay registered so queued replies still go out.
+     */
+    public void stopIntake() {
+        intakeOpen = false;
+        activeBots.values().forEach(TelegramBotInstance::closeIntake);
+
+        pollingSessions.values().forEach(session -> {
+            if (session.isRunning()) {
+                session.stop();
+            }
+        });
+        pollingSessions.clear();
+
+        try {
+            CompletableFuture.allOf(activeBots.keySet().stream()
+                            .map(sharedPollingEngine::unregister)
+                            .toArray(CompletableFuture[]::new))
+                    .get(appSettings.getTelegram().getStopTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Polling did not stop for all bots within {}s", appSettings.getTelegram().getStopTimeoutSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Error stopping polling: {}", e.getMessage());
+        }
+        log.info("Update intake stopped for {} bot(s)", activeBots.size());
+    }
+
+    /**
+     * Close the bot's polling connection and wait until no getUpdates request is in flight
+     */
+    private void awaitPollingStopped(Long botId) {
+        BotSession session = pollingSessions.remove(botId);
+        if (session != null && session.isRunning()) {
+            session.stop();
+        }
+
+        try {
+            sharedPollingEngine.unregister(botId)
+                    .get(appSettings.getTelegram().getStopTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Polling of bot {} did not stop within {}s", botId, appSettings.getTelegram().getStopTimeoutSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for bot {} to stop polling", botId);
+        } catch (ExecutionException e) {
+            log.warn("Error stopping polling of bot {}: {}", botId, e.getMessage());
+        }
+    }
+
+    /**
+     * Probe getUpdates until Telegram hands this process the polling slot
+     * A previous session can hold it briefly after stopping, so 409 conflicts are retried with bounded backoff.
+     * The probe passes no offset and therefore confirms no updates.
+     */
+    private void awaitPollingReady(TelegramBotInstance botInstance) throws TelegramApiException {
+        GetUpdates probe = GetUpdates.builder().limit(1).timeout(0).build();
+        int maxAttempts = Math.max(1, appSettings.getTelegram().getConflictRetries());
+        long delayMs = 250;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                botInstance.execute(probe);
+                return;
+            } catch (TelegramApiRequestException e) {
+                if (!Integer.valueOf(409).equals(e.getErrorCode()) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.info("Bot {} polling slot still taken (attempt {}/{}), retrying in {} ms",
+                        botInstance.getBotUsername(), attempt, maxAttempts, delayMs);
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                delayMs = Math.min(delayMs * 2, 4000);
+            }
+        }
+    }
+
+    /**
+     * Long-polling bots share one polling engine unless configured to use a session per bot
+     */
+    private boolean usesSharedPolling() {
+        return !"session".equalsIgnoreCase(appSettings.getTelegram().getPollingEngine());
+    }
+
+    /**
+     * Webhook only when the bot metadata opts in with ingestion=webhook, long polling otherwise
+     */
+    private IngestionMode resolveIngestionMode(Bot bot) {
+        String configured = bot.getMetadata() != null ? bot.getMetadata().path("ingestion").asText("") : "";
+        if (!"webhook".equalsIgnoreCase(configured)) {
+            return IngestionMode.POLLING;
+        }
+        if (appSettings.getTelegram().getWebhookBaseUrl().isBlank()) {
+            log.warn("Bot {} requests webhook mode but telegram.webhook.base_url is not set, falling back to long polling", bot.getId());
+            return IngestionMode.POLLING;
+        }
+        return IngestionMode.WEBHOOK;
+    }
+
+    /**
+     * Point Telegram at the shared webhook endpoint of this service
+     * The endpoint is published under telegram.webhook.base_url, the public base URL of this service.
+     */
+    private void registerWebhook(Bot bot, TelegramBotInstance botInstance) throws TelegramApiException {
+        String secret = webhookSecret(bot);
+        String base = appSettings.getTelegram().getWebhookBaseUrl().trim().replaceAll("/+$", "");
+        SetWebhook setWebhook = SetWebhook.builder()
+                .url(base + WEBHOOK_PATH + "/" + bot.getId() + "/" + secret)
+                .secretToken(secret)
+                .build();
+
+        botInstance.execute(setWebhook);
+
+        // Confirm Telegram switched the bot to the new endpoint
+        WebhookInfo webhookInfo = botInstance.execute(new GetWebhookInfo());
+        if (!setWebhook.getUrl().equals(webhookInfo.getUrl())) {
+            throw new IllegalStateException("Webhook was not applied for bot " + bot.getId());
+        }
+        webhookSecrets.put(bot.getId(), secret);
+    }
+
+    /**
+     * Per-bot secret derived from the token, so it stays stable across restarts
+     */
+    private String webhookSecret(Bot bot) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((bot.getId() + ":" + bot.getBotToken()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private boolean secretMatches(String expected, String actual) {
+        return actual != null && MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Get active bot instances
      */
     public Map<Long, TelegramBotInstance> getActiveBots() {
         return Map.copyOf(activeBots);
     }
+
+    private enum IngestionMode {
+        POLLING, WEBHOOK
+    }
+
+    /**
+     * Outcome of a webhook delivery
+     */
+    public enum WebhookDelivery {
+        ACCEPTED, REJECTED, BUSY, UNAVAILABLE
+    }
 }
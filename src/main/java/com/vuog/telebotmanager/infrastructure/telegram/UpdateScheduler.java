@@ -0,0 +1,305 @@
+package com.vuog.telebotmanager.infrastructure.telegram;
+
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared scheduler for incoming Telegram updates of all bots
+ * Each chat gets a serial mailbox so replies keep their order; mailboxes are multiplexed
+ * over one executor, so throughput scales with active chats rather than with bots.
+ */
+@Component
+@Slf4j
+public class UpdateScheduler {
+
+    /**
+     * Tasks a mailbox runs before yielding its worker to other chats
+     */
+    private static final int DRAIN_BATCH = 16;
+    private static final long IDLE_POLL_MS = 50;
+
+    private final AppSettings appSettings;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, BotLane> lanes = new ConcurrentHashMap<>();
+    private final Map<MailboxKey, ChatMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger activeMailboxes = new AtomicInteger();
+    private volatile ExecutorService executor;
+
+    public UpdateScheduler(AppSettings appSettings, MeterRegistry meterRegistry) {
+        this.appSettings = appSettings;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("telegram.updates.mailboxes", activeMailboxes, AtomicInteger::get)
+                .description("Chat mailboxes currently holding or running updates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register a bot so its updates can be scheduled
+     */
+    public void registerBot(Long botId, String botUsername) {
+        lanes.computeIfAbsent(botId, id -> new BotLane(id, botUsername));
+    }
+
+    /**
+     * Unregister a bot; updates already queued still run
+     */
+    public void unregisterBot(Long botId) {
+        BotLane lane = lanes.remove(botId);
+        if (lane != null) {
+            lane.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * Queue a task for a chat of a bot
+     * Returns false when the bot is unknown or already has the maximum number of pending updates
+     */
+    public boolean submit(Long botId, String chatKey, Runnable task) {
+        BotLane lane = lanes.get(botId);
+        if (lane == null) {
+            return false;
+        }
+
+        if (lane.pending.incrementAndGet() > appSettings.getTelegram().getUpdateQueueCapacity()) {
+            lane.pending.decrementAndGet();
+            lane.dropped.increment();
+            return false;
+        }
+
+        // Enqueue inside compute so an idle mailbox can't be removed between lookup and add
+        ScheduledTask scheduledTask = new ScheduledTask(task, System.nanoTime());
+        ChatMailbox mailbox = mailboxes.compute(new MailboxKey(botId, chatKey), (key, existing) -> {
+            ChatMailbox target = existing;
+            if (target == null) {
+                target = new ChatMailbox(key, lane);
+                activeMailboxes.incrementAndGet();
+            }
+            target.tasks.add(scheduledTask);
+            lane.depth.record(target.size.incrementAndGet());
+            return target;
+        });
+        mailbox.schedule();
+        return true;
+    }
+
+    /**
+     * Count a reply that completes after its update's task returned, such as a deferred AI answer, as pending until it ends
+     * The shutdown drain and polling backpressure then see work still running for the bot.
+     */
+    public void trackDeferred(Long botId, CompletableFuture<?> completion) {
+        BotLane lane = lanes.get(botId);
+        if (lane == null || completion.isDone()) {
+            return;
+        }
+        lane.pending.incrementAndGet();
+        completion.whenComplete((result, error) -> lane.pending.decrementAndGet());
+    }
+
+    /**
+     * Number of updates queued or running for a bot, including deferred replies
+     */
+    public int getPendingCount(Long botId) {
+        BotLane lane = lanes.get(botId);
+        return lane != null ? lane.pending.get() : 0;
+    }
+
+    /**
+     * Wait until no updates are queued or running and no deferred replies are outstanding, or the timeout elapses
+     * Returns the number of updates still pending
+     */
+    public int awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int pending = getTotalPendingCount();
+        while (pending > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(IDLE_POLL_MS);
+            pending = getTotalPendingCount();
+        }
+        return pending;
+    }
+
+    /**
+     * Number of updates queued or running across all bots
+     */
+    public int getTotalPendingCount() {
+        return lanes.values().stream().mapToInt(lane -> lane.pending.get()).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Create the shared executor on first use, after settings are loaded
+     */
+    private ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (this) {
+                current = executor;
+                if (current == null) {
+                    AppSettings.TelegramSettings settings = appSettings.getTelegram();
+                    if ("platform".equalsIgnoreCase(settings.getUpdateWorkerMode())) {
+                        current = Executors.newFixedThreadPool(Math.max(1, settings.getUpdateWorkers()),
+                                Thread.ofPlatform().name("telegram-update-", 0).daemon(true).factory());
+                    } else {
+                        current = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("telegram-update-", 0).factory());
+                    }
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private record MailboxKey(Long botId, String chatKey) {
+    }
+
+    private record ScheduledTask(Runnable task, long enqueuedAtNanos) {
+    }
+
+    /**
+     * Per-bot pending count and meters
+     */
+    private final class BotLane {
+
+        private final String botUsername;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Timer waitTime;
+        private final DistributionSummary depth;
+        private final Counter dropped;
+        private final List<Meter> meters;
+
+        private BotLane(Long botId, String botUsername) {
+            this.botUsername = botUsername;
+            String bot = String.valueOf(botId);
+            Gauge pendingGauge = Gauge.builder("telegram.updates.pending", pending, AtomicInteger::get)
+                    .description("Updates queued or running for a bot, including deferred replies")
+                    .tag("bot", bot)
+                    .register(meterRegistry);
+            this.waitTime = Timer.builder("telegram.updates.wait")
+                    .description("Time an update waits in its chat mailbox before processing starts")
+                    .tag("bot", bot)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofMinutes(1))
+                    .register(meterRegistry);
+            this.depth = DistributionSummary.builder("telegram.updates.mailbox.depth")
+                    .description("Chat mailbox depth observed when an update is queued")
+                    .tag("bot", bot)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.dropped = Counter.builder("telegram.updates.dropped")
+                    .description("Updates dropped because the bot's queue was full or shutting down")
+                    .tag("bot", bot)
+                    .register(meterRegistry);
+            this.meters = List.of(pendingGauge, waitTime, depth, dropped);
+        }
+    }
+
+    /**
+     * Serial queue of one chat; at most one worker drains it at a time
+     */
+    private final class ChatMailbox implements Runnable {
+
+        private final MailboxKey key;
+        private final BotLane lane;
+        private final Queue<ScheduledTask> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private ChatMailbox(MailboxKey key, BotLane lane) {
+            this.key = key;
+            this.lane = lane;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor().execute(this);
+                } catch (Exception e) {
+                    // Executor is shutting down; drop what this mailbox holds
+                    scheduled.set(false);
+                    int dropped = 0;
+                    while (tasks.poll() != null) {
+                        dropped++;
+                    }
+                    size.addAndGet(-dropped);
+                    lane.pending.addAndGet(-dropped);
+                    lane.dropped.increment(dropped);
+                    removeIfIdle();
+                    log.warn("Dropped {} updates for bot {} chat {}: {}", dropped, lane.botUsername, key.chatKey(), e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            ScheduledTask next;
+            int processed = 0;
+            while (processed < DRAIN_BATCH && (next = tasks.poll()) != null) {
+                size.decrementAndGet();
+                lane.waitTime.record(System.nanoTime() - next.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+                try {
+                    next.task().run();
+                } catch (Exception e) {
+                    log.error("Error processing update for bot {} chat {}: {}", lane.botUsername, key.chatKey(), e.getMessage(), e);
+                } finally {
+                    lane.pending.decrementAndGet();
+                    processed++;
+                }
+            }
+
+            scheduled.set(false);
+            if (!tasks.isEmpty()) {
+                // Re-queue behind other chats instead of monopolising the worker
+                schedule();
+            } else {
+                removeIfIdle();
+            }
+        }
+
+        private void removeIfIdle() {
+            mailboxes.computeIfPresent(key, (k, m) -> {
+                if (m == this && m.tasks.isEmpty() && !m.scheduled.get()) {
+                    activeMailboxes.decrementAndGet();
+                    return null;
+                }
+                return m;
+            });
+        }
+    }
+}
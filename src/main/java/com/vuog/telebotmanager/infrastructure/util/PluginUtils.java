@@ -242,19 +242,27 @@ public class PluginUtils {
                         
                         <b>Executions:</b> %d
                         <b>Success Rate:</b> %.1f%%
+                        <b>Latency:</b> p50 %d ms | p99 %d ms | max %d ms
                         <b>Average Time:</b> %.2f ms
-                        <b>Last Execution:</b> %d ms ago
+                        <b>Last Execution Time:</b> %d ms
                         
                         <b>Success:</b> %d
                         <b>Errors:</b> %d
+                        <b>Retries:</b> %d
+                        <b>Timeouts:</b> %d
                         """,
                 pluginName,
                 stats.getExecutionCount(),
                 stats.getExecutionCount() > 0 ? (double) stats.getSuccessCount() / stats.getExecutionCount() * 100 : 0.0,
+                stats.getP50ExecutionTime(),
+                stats.getP99ExecutionTime(),
+                stats.getMaxExecutionTime(),
                 stats.getAverageExecutionTime(),
                 stats.getLastExecutionTime(),
                 stats.getSuccessCount(),
-                stats.getErrorCount());
+                stats.getErrorCount(),
+                stats.getRetryCount(),
+                stats.getTimeoutCount());
     }
 
     /**
@@ -3,6 +3,7 @@ package com.vuog.telebotmanager.infrastructure.util;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
@@ -268,4 +269,30 @@ public class TelegramUtils {
                 Operation completed successfully!
                 """, message);
     }
+
+    /**
+     * Get the key used to keep updates of one conversation in order
+     * Falls back to the sender for updates without a chat, and to the update id otherwise
+     */
+    public static String chatKey(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId().toString();
+        }
+        if (update.hasEditedMessage()) {
+            return update.getEditedMessage().getChatId().toString();
+        }
+        if (update.hasChannelPost()) {
+            return update.getChannelPost().getChatId().toString();
+        }
+        if (update.hasCallbackQuery()) {
+            var callback = update.getCallbackQuery();
+            return callback.getMessage() != null
+                    ? callback.getMessage().getChatId().toString()
+                    : "user:" + callback.getFrom().getId();
+        }
+        if (update.hasInlineQuery()) {
+            return "user:" + update.getInlineQuery().getFrom().getId();
+        }
+        return "update:" + update.getUpdateId();
+    }
 }
@@ -2,6 +2,7 @@ package com.vuog.telebotmanager.presentation.controller;
 
 import com.vuog.telebotmanager.application.service.BotLifecycleService;
 import com.vuog.telebotmanager.application.service.BotOrchestrationService;
+import com.vuog.telebotmanager.application.service.BotRestartJobService;
 import com.vuog.telebotmanager.application.usecase.BotManagementUseCase;
 import com.vuog.telebotmanager.application.usecase.CommandManagementUseCase;
 import com.vuog.telebotmanager.application.usecase.PluginManagementUseCase;
@@ -11,6 +12,7 @@ import com.vuog.telebotmanager.domain.entity.BotPlugin;
 import com.vuog.telebotmanager.domain.entity.Command;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.service.BotRestoreService;
 import com.vuog.telebotmanager.presentation.dto.BotDto;
 import com.vuog.telebotmanager.presentation.dto.BotHistoryDto;
 import com.vuog.telebotmanager.presentation.dto.BotPluginDto;
@@ -54,6 +56,8 @@ public class BotController {
     private final BotManagementUseCase botManagementUseCase;
     private final BotOrchestrationService botOrchestrationService;
     private final BotLifecycleService botLifecycleService;
+    private final BotRestartJobService botRestartJobService;
+    private final BotRestoreService botRestoreService;
     private final CommandManagementUseCase commandManagementUseCase;
     private final PluginManagementUseCase pluginManagementUseCase;
 
@@ -214,6 +218,30 @@ public class BotController {
         return ResponseEntity.ok(BotDto.fromEntity(bot));
     }
 
+    @PostMapping("/{botId}/restart-async")
+    @Operation(summary = "Restart bot asynchronously", description = "Starts a background restart and returns a job handle")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BotRestartJobService.RestartJob> restartBotAsync(@PathVariable Long botId) {
+        log.info("Submitting restart job for bot: {}", botId);
+
+        BotRestartJobService.RestartJob job = botRestartJobService.restartBotAsync(botId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/restart-jobs/{jobId}")
+    @Operation(summary = "Get restart job", description = "Retrieves the status of a background restart")
+    public ResponseEntity<BotRestartJobService.RestartJob> getRestartJob(@PathVariable String jobId) {
+        return botRestartJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/restore-progress")
+    @Operation(summary = "Get restore progress", description = "Retrieves progress of restoring suspended bots after startup")
+    public ResponseEntity<BotRestoreService.RestoreProgress> getRestoreProgress() {
+        return ResponseEntity.ok(botRestoreService.getProgress());
+    }
+
     @GetMapping("/{botId}/status")
     @Operation(summary = "Get bot status", description = "Retrieves detailed status information for a bot")
     public ResponseEntity<BotLifecycleService.BotStatusInfo> getBotStatus(@PathVariable Long botId) {
@@ -4,6 +4,7 @@ import com.vuog.telebotmanager.application.usecase.PluginManagementUseCase;
 import com.vuog.telebotmanager.domain.entity.BotPlugin;
 import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
 import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.service.PluginPreloadService;
 import com.vuog.telebotmanager.presentation.dto.query.PluginQuery;
 import com.vuog.telebotmanager.presentation.dto.request.CreatePluginRequest;
 import com.vuog.telebotmanager.presentation.dto.request.ExecutePluginRequest;
@@ -35,6 +36,7 @@ import java.util.Optional;
 public class PluginController {
 
     private final PluginManagementUseCase pluginManagementUseCase;
+    private final PluginPreloadService pluginPreloadService;
 
     @PostMapping
     @Operation(summary = "Create a new plugin", description = "Creates a new plugin with source code")
@@ -94,6 +96,13 @@ public class PluginController {
         return ResponseEntity.ok(botPlugins);
     }
 
+    @GetMapping("/preload-report")
+    @Operation(summary = "Get plugin preload report", description = "Retrieves per-plugin compile and warm-up times of the startup preload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PluginPreloadService.PreloadReport> getPreloadReport() {
+        return ResponseEntity.ok(pluginPreloadService.getReport());
+    }
+
     @PutMapping("/{pluginId}/source")
     @Operation(summary = "Update plugin source code", description = "Updates plugin source code")
     @PreAuthorize("hasRole('ADMIN')")
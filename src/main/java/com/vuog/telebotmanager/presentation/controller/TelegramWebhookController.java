@@ -0,0 +1,51 @@
+package com.vuog.telebotmanager.presentation.controller;
+
+import com.vuog.telebotmanager.infrastructure.telegram.TelegramBotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Shared webhook endpoint receiving Telegram updates for all bots in webhook mode
+ * Updates are queued on the bot's pipeline and acknowledged immediately
+ */
+@RestController
+@RequestMapping(TelegramBotService.WEBHOOK_PATH)
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Telegram Webhook", description = "Endpoint Telegram delivers bot updates to")
+public class TelegramWebhookController {
+
+    private static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private final TelegramBotService telegramBotService;
+
+    @PostMapping("/{botId}/{secret}")
+    @Operation(summary = "Receive update", description = "Receives a Telegram update for a bot running in webhook mode")
+    public ResponseEntity<Void> receiveUpdate(@PathVariable Long botId,
+                                              @PathVariable String secret,
+                                              @RequestHeader(value = SECRET_HEADER, required = false) String secretHeader,
+                                              @RequestBody Update update) {
+        return switch (telegramBotService.handleWebhookUpdate(botId, secret, secretHeader, update)) {
+            case ACCEPTED -> ResponseEntity.ok().build();
+            case BUSY -> {
+                // Non-2xx makes Telegram redeliver the update later
+                log.warn("Webhook update {} for bot {} rejected: queue full", update.getUpdateId(), botId);
+                yield ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+            }
+            case REJECTED -> ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            // Shutting down; Telegram retries and the next instance picks the update up
+            case UNAVAILABLE -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        };
+    }
+}
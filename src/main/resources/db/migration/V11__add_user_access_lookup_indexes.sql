@@ -0,0 +1,3 @@
+-- Indexes for resolving a user's effective access in one query
+CREATE INDEX IF NOT EXISTS idx_user_access_telegram_user_bot ON user_access(telegram_user_id, bot_id);
+CREATE INDEX IF NOT EXISTS idx_user_access_user_bot ON user_access(user_id, bot_id);
@@ -0,0 +1,14 @@
+-- Compiled plugin classes, keyed by a hash of the plugin source, so loads skip javac for unchanged plugins
+CREATE TABLE IF NOT EXISTS plugin_bytecode (
+    id BIGSERIAL PRIMARY KEY,
+    plugin_id VARCHAR(255) NOT NULL,
+    plugin_version VARCHAR(255) NOT NULL,
+    source_hash VARCHAR(64) NOT NULL,
+    class_name VARCHAR(500) NOT NULL,
+    bytecode BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (plugin_id) REFERENCES plugins(id) ON DELETE CASCADE,
+    UNIQUE (plugin_id, source_hash, class_name)
+);
+
+CREATE INDEX IF NOT EXISTS idx_plugin_bytecode_plugin_hash ON plugin_bytecode(plugin_id, source_hash);
@@ -0,0 +1,82 @@
+package com.vuog.telebotmanager.infrastructure.handler;
+
+import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent /ai commands against a local stub of the Gemini API
+ * Latency is measured by AiCommandLatencyBenchmark; these tests only check how calls reach the upstream.
+ */
+class AiCommandConcurrencyTest {
+
+    private static final int CALLS = 100;
+    private static final int UPSTREAM_DELAY_MS = 50;
+    private static final int HTTP_POOL_SIZE = 16;
+    private static final int TIMEOUT_MS = 5000;
+
+    private GeminiStubFixture gemini;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gemini = new GeminiStubFixture(HTTP_POOL_SIZE, UPSTREAM_DELAY_MS, TIMEOUT_MS, CALLS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gemini.close();
+    }
+
+    @Test
+    void concurrentDistinctCallsOverlapWithinTheConnectionPool() throws Exception {
+        runConcurrently(CALLS, i -> "/ai question number " + i);
+
+        assertThat(gemini.upstreamCalls()).isEqualTo(CALLS);
+        // Calls must overlap rather than queue behind one connection, but never beyond the pool
+        assertThat(gemini.upstreamPeak()).isGreaterThan(1).isLessThanOrEqualTo(HTTP_POOL_SIZE);
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareUpstreamCalls() throws Exception {
+        runConcurrently(CALLS, i -> "/ai what is the answer?");
+
+        assertThat(gemini.upstreamCalls()).isLessThan(CALLS / 10);
+    }
+
+    /**
+     * Run /ai commands from concurrent callers; every call must succeed
+     */
+    private void runConcurrently(int calls, IntFunction<String> input) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CommandResponse>> responses = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < calls; i++) {
+                String chatId = "chat-" + i;
+                String text = input.apply(i);
+                responses.add(callers.submit(() -> {
+                    start.await();
+                    return gemini.ask(chatId, text);
+                }));
+            }
+            start.countDown();
+            for (Future<CommandResponse> response : responses) {
+                CommandResponse result = response.get(TIMEOUT_MS * 2L, TimeUnit.MILLISECONDS);
+                assertThat(result.isSuccessful()).as("error: %s", result.getErrorMessage()).isTrue();
+                assertThat(result.getResponseText()).isEqualTo(GeminiStubFixture.ANSWER);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.vuog.telebotmanager.infrastructure.handler;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.service.AsyncAiService;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
+import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
+import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import com.vuog.telebotmanager.infrastructure.service.AiRequestCoalescer;
+import com.vuog.telebotmanager.infrastructure.service.AiResponseCache;
+import com.vuog.telebotmanager.infrastructure.service.CommandResolver;
+import com.vuog.telebotmanager.infrastructure.telegram.OutboundDispatcher;
+import com.vuog.telebotmanager.infrastructure.telegram.ProgressiveReply;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AiCommandHandlerTest {
+
+    private static final int TIMEOUT_MS = 200;
+    private static final Command AI_COMMAND = Command.builder()
+            .command("/ai").type(Command.CommandType.AI_ANSWER).isEnabled(true).build();
+
+    private final AsyncAiService aiService = mock(AsyncAiService.class);
+    private final OutboundDispatcher outboundDispatcher = mock(OutboundDispatcher.class);
+    private final AppSettings appSettings = new AppSettings();
+
+    private AiRequestCoalescer coalescer;
+    private AiCommandHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        appSettings.getAi().setTimeoutMs(TIMEOUT_MS);
+        appSettings.getAi().setCacheEnabled(false);
+        appSettings.getAi().setStreaming(false);
+        when(aiService.isAvailable()).thenReturn(true);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        coalescer = new AiRequestCoalescer(meterRegistry);
+        handler = new AiCommandHandler(aiService, mock(CommandResolver.class), outboundDispatcher, appSettings,
+                new AiResponseCache(appSettings, mock(StringRedisTemplate.class), meterRegistry), coalescer);
+    }
+
+    @Test
+    void followerTimesOutWhenTheLeadersCallNeverEnds() {
+        when(aiService.answerQuestion(anyString(), isNull(), anyMap())).thenReturn(new CompletableFuture<>());
+
+        CommandResponse leader = handler.execute(context(request("chat-1").allowDeferredResponse()));
+        CommandResponse follower = handler.execute(context(request("chat-2")));
+
+        assertThat(leader.isPending()).isTrue();
+        assertThat(follower.isSuccessful()).isFalse();
+        assertThat(follower.getErrorCode()).isEqualTo("AI_SERVICE_TIMEOUT");
+        assertThat(leader.getCompletion()).isNotDone();
+    }
+
+    @Test
+    void failedLeaderSetupReleasesItsFollowers() {
+        appSettings.getAi().setStreaming(true);
+        CommandRequest request = request("chat-1");
+        String key = keyOf(request);
+        AtomicReference<CompletableFuture<String>> follower = new AtomicReference<>();
+        when(outboundDispatcher.isRegistered(anyLong())).thenReturn(true);
+        when(outboundDispatcher.openProgressiveReply(anyLong(), anyString(), anyString())).thenAnswer(invocation -> {
+            // A request joins the flight while the leader is still setting up its call
+            follower.set(coalescer.begin(key).result());
+            throw new IllegalStateException("outbox closed");
+        });
+
+        assertThatThrownBy(() -> handler.execute(context(request))).hasMessage("outbox closed");
+        assertThat(follower.get()).isCompletedExceptionally();
+        assertThat(coalescer.begin(key).isLeader()).isTrue();
+    }
+
+    @Test
+    void answersFromTheAiServiceAndEndsTheFlight() {
+        when(aiService.answerQuestion(anyString(), isNull(), anyMap())).thenReturn(CompletableFuture.completedFuture("42"));
+        CommandRequest request = request("chat-1");
+
+        CommandResponse response = handler.execute(context(request));
+
+        assertThat(response.isSuccessful()).isTrue();
+        assertThat(response.getResponseText()).isEqualTo("42");
+        assertThat(coalescer.begin(keyOf(request)).isLeader()).isTrue();
+    }
+
+    @Test
+    void streamedResponseCompletesOnceTheFinalEditIsSent() {
+        appSettings.getAi().setStreaming(true);
+        ProgressiveReply reply = mock(ProgressiveReply.class);
+        CompletableFuture<Void> finalEdit = new CompletableFuture<>();
+        when(reply.complete("42")).thenReturn(finalEdit);
+        when(outboundDispatcher.isRegistered(anyLong())).thenReturn(true);
+        when(outboundDispatcher.openProgressiveReply(anyLong(), anyString(), anyString())).thenReturn(reply);
+        when(aiService.answerQuestion(anyString(), isNull(), anyMap(), any())).thenReturn(CompletableFuture.completedFuture("42"));
+
+        CommandResponse response = handler.execute(context(request("chat-1").allowDeferredResponse()));
+
+        // Until then the shutdown drain must still count the reply as pending
+        assertThat(response.getCompletion()).isNotDone();
+        finalEdit.complete(null);
+        assertThat(response.getCompletion().join().isDelivered()).isTrue();
+    }
+
+    private String keyOf(CommandRequest request) {
+        return new AiResponseCache(appSettings, mock(StringRedisTemplate.class), new SimpleMeterRegistry())
+                .keyOf(AI_COMMAND, "answer", request.getInputText(), request.getContext(), request.getParameters());
+    }
+
+    private static CommandRequest request(String chatId) {
+        return CommandRequest.create("cmd", "1", "user", chatId, "/ai", "/ai what is the answer?");
+    }
+
+    private static CommandContext context(CommandRequest request) {
+        return CommandContext.of(request, 1L, AI_COMMAND);
+    }
+}
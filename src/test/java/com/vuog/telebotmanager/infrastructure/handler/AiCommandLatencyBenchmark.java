@@ -0,0 +1,64 @@
+package com.vuog.telebotmanager.infrastructure.handler;
+
+import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of concurrent distinct /ai commands against a local Gemini stub answering after 50 ms
+ * More callers than pooled connections, so the percentiles include waiting for the pool and the limiter.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=AiCommandLatencyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class AiCommandLatencyBenchmark {
+
+    private static final int HTTP_POOL_SIZE = 16;
+    private static final int UPSTREAM_DELAY_MS = 50;
+    private static final int TIMEOUT_MS = 5000;
+
+    private final AtomicLong questions = new AtomicLong();
+    private GeminiStubFixture gemini;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        gemini = new GeminiStubFixture(HTTP_POOL_SIZE, UPSTREAM_DELAY_MS, TIMEOUT_MS, 1000);
+        // Every call must reach the stub
+        gemini.settings().getAi().setCacheEnabled(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        gemini.close();
+    }
+
+    @Benchmark
+    public CommandResponse distinctQuestion() {
+        long n = questions.incrementAndGet();
+        CommandResponse response = gemini.ask("chat-" + n, "/ai question number " + n);
+        if (!response.isSuccessful()) {
+            throw new IllegalStateException("AI command failed: " + response.getErrorMessage());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,130 @@
+package com.vuog.telebotmanager.infrastructure.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
+import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
+import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import com.vuog.telebotmanager.infrastructure.service.AiRequestCoalescer;
+import com.vuog.telebotmanager.infrastructure.service.AiResponseCache;
+import com.vuog.telebotmanager.infrastructure.service.AsyncGoogleAiService;
+import com.vuog.telebotmanager.infrastructure.service.CommandResolver;
+import com.vuog.telebotmanager.infrastructure.service.GoogleAiService;
+import com.vuog.telebotmanager.infrastructure.telegram.OutboundDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * AI command handler wired to the real Gemini client, calling a local stub of the Gemini API
+ * The stub answers generateContent after a fixed delay and tracks how many calls overlap.
+ */
+class GeminiStubFixture implements AutoCloseable {
+
+    static final String ANSWER = "stub answer";
+    private static final Command AI_COMMAND = Command.builder()
+            .command("/ai").type(Command.CommandType.AI_ANSWER).isEnabled(true).build();
+
+    private final int upstreamDelayMs;
+    private final ExecutorService serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final AtomicInteger upstreamActive = new AtomicInteger();
+    private final AtomicInteger upstreamPeak = new AtomicInteger();
+
+    private final AppSettings appSettings = new AppSettings();
+    private final HttpServer server;
+    private final GoogleAiService googleAiService;
+    private final AsyncGoogleAiService asyncAiService;
+    private final AiCommandHandler handler;
+
+    GeminiStubFixture(int httpPoolSize, int upstreamDelayMs, int timeoutMs, int queueCapacity) throws IOException {
+        this.upstreamDelayMs = upstreamDelayMs;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), queueCapacity * 2);
+        server.createContext("/v1beta/models/", this::generateContent);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        AppSettings.AiSettings ai = appSettings.getAi();
+        ai.setEnabled(true);
+        ai.setApiKey("test-key");
+        ai.setModel("gemini-test");
+        ai.setTemperature(0.7);
+        ai.setMaxTokens(1000);
+        ai.setTimeoutMs(timeoutMs);
+        ai.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        ai.setHttpPoolSize(httpPoolSize);
+        ai.setStreaming(false);
+        ai.setLimiterMaxConcurrency(httpPoolSize);
+        ai.setLimiterQueueCapacity(queueCapacity);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        googleAiService = new GoogleAiService(appSettings);
+        asyncAiService = new AsyncGoogleAiService(googleAiService, appSettings, meterRegistry);
+        handler = new AiCommandHandler(asyncAiService, mock(CommandResolver.class), mock(OutboundDispatcher.class),
+                appSettings, new AiResponseCache(appSettings, mock(StringRedisTemplate.class), meterRegistry),
+                new AiRequestCoalescer(meterRegistry));
+    }
+
+    /**
+     * Run an /ai command with the given text from a chat
+     */
+    CommandResponse ask(String chatId, String inputText) {
+        CommandRequest request = CommandRequest.create("cmd-" + chatId, "1", "user-" + chatId, chatId, "/ai", inputText);
+        return handler.execute(CommandContext.of(request, 1L, AI_COMMAND));
+    }
+
+    AppSettings settings() {
+        return appSettings;
+    }
+
+    int upstreamCalls() {
+        return upstreamCalls.get();
+    }
+
+    int upstreamPeak() {
+        return upstreamPeak.get();
+    }
+
+    @Override
+    public void close() {
+        asyncAiService.shutdown();
+        googleAiService.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void generateContent(HttpExchange exchange) throws IOException {
+        upstreamCalls.incrementAndGet();
+        upstreamPeak.accumulateAndGet(upstreamActive.incrementAndGet(), Math::max);
+        try {
+            exchange.getRequestBody().readAllBytes();
+            boolean authorized = "test-key".equals(exchange.getRequestHeaders().getFirst("x-goog-api-key"));
+            Thread.sleep(upstreamDelayMs);
+            byte[] body = (authorized
+                    ? "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + ANSWER + "\"}]}}]}"
+                    : "{\"error\":{\"code\":403}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(authorized ? 200 : 403, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } finally {
+            upstreamActive.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void burstOfOverloadsHalvesTheLimitOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 0);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(limiter.submit(overloadAfter(release)));
+        }
+        release.countDown();
+        awaitAll(calls);
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void overloadAfterADecreaseHalvesAgain() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 0);
+
+        awaitAll(List.of(limiter.submit(overloadAfter(new CountDownLatch(0)))));
+        awaitAll(List.of(limiter.submit(overloadAfter(new CountDownLatch(0)))));
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void limitStaysWithinItsBounds() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 0);
+
+        for (int i = 0; i < 5; i++) {
+            awaitAll(List.of(limiter.submit(overloadAfter(new CountDownLatch(0)))));
+        }
+        assertThat(limiter.getLimit()).isEqualTo(1);
+
+        for (int i = 0; i < 50; i++) {
+            awaitAll(List.of(limiter.submit(() -> "ok")));
+        }
+        // Sequential calls never use more than one slot, so the limit grows only slightly
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void otherFailuresLeaveTheLimitUnchanged() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 0);
+
+        CompletableFuture<String> call = limiter.submit(() -> {
+            throw new IllegalArgumentException("bad request");
+        });
+
+        assertThatThrownBy(call::join).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void queuesBeyondTheLimitAndRejectsWhenTheQueueIsFull() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1, executor, Overload.class::isInstance);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = limiter.submit(() -> {
+            awaitQuietly(release);
+            return "first";
+        });
+        CompletableFuture<String> queued = limiter.submit(() -> "second");
+        CompletableFuture<String> rejected = limiter.submit(() -> "third");
+
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("second");
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int queueCapacity) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 16, queueCapacity, executor, Overload.class::isInstance);
+    }
+
+    private static Supplier<String> overloadAfter(CountDownLatch release) {
+        return () -> {
+            awaitQuietly(release);
+            throw new Overload();
+        };
+    }
+
+    private static void awaitAll(List<CompletableFuture<String>> calls) {
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .handle((done, error) -> null)
+                .orTimeout(5, TimeUnit.SECONDS)
+                .join();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Overload extends RuntimeException {
+    }
+}
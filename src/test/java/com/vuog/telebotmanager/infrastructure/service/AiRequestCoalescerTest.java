@@ -0,0 +1,77 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiRequestCoalescerTest {
+
+    private final AiRequestCoalescer coalescer = new AiRequestCoalescer(new SimpleMeterRegistry());
+
+    @Test
+    void firstRequestLeadsAndLaterOnesFollow() {
+        AiRequestCoalescer.Flight leader = coalescer.begin("key");
+        AiRequestCoalescer.Flight follower = coalescer.begin("key");
+        AiRequestCoalescer.Flight other = coalescer.begin("other");
+
+        assertThat(leader.isLeader()).isTrue();
+        assertThat(follower.isLeader()).isFalse();
+        assertThat(other.isLeader()).isTrue();
+    }
+
+    @Test
+    void followersShareTheLeadersResult() throws Exception {
+        AiRequestCoalescer.Flight leader = coalescer.begin("key");
+        CompletableFuture<String> shared = coalescer.begin("key").result();
+
+        leader.complete("answer");
+
+        assertThat(shared.get(1, TimeUnit.SECONDS)).isEqualTo("answer");
+        assertThat(coalescer.begin("key").isLeader()).isTrue();
+    }
+
+    @Test
+    void followersShareTheLeadersFailure() {
+        AiRequestCoalescer.Flight leader = coalescer.begin("key");
+        CompletableFuture<String> shared = coalescer.begin("key").result();
+
+        leader.fail(new IllegalStateException("upstream down"));
+
+        assertThatThrownBy(() -> shared.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(coalescer.begin("key").isLeader()).isTrue();
+    }
+
+    @Test
+    void followerTimeoutDoesNotEndTheFlight() throws Exception {
+        AiRequestCoalescer.Flight leader = coalescer.begin("key");
+        CompletableFuture<String> impatient = coalescer.begin("key").result().orTimeout(10, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> impatient.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+
+        CompletableFuture<String> patient = coalescer.begin("key").result();
+        leader.complete("answer");
+        assertThat(patient.get(1, TimeUnit.SECONDS)).isEqualTo("answer");
+    }
+
+    @Test
+    void onlyTheLeaderEndsTheFlight() {
+        coalescer.begin("key");
+        AiRequestCoalescer.Flight follower = coalescer.begin("key");
+        CompletableFuture<String> shared = follower.result();
+
+        follower.complete("ignored");
+        follower.fail(new IllegalStateException("ignored"));
+
+        assertThat(shared).isNotDone();
+        assertThat(coalescer.begin("key").isLeader()).isFalse();
+    }
+}
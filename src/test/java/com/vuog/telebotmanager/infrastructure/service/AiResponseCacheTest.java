@@ -0,0 +1,94 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AiResponseCacheTest {
+
+    private static final Command AI = Command.builder()
+            .id(1L).command("/ai").type(Command.CommandType.AI_ANSWER).build();
+
+    private AiResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        AppSettings appSettings = new AppSettings();
+        appSettings.getAi().setModel("gemini-test");
+        appSettings.getAi().setTemperature(0.7);
+        appSettings.getAi().setMaxTokens(1000);
+        appSettings.getAi().setCacheEnabled(true);
+        appSettings.getAi().setCacheTtlSeconds(60);
+        appSettings.getAi().setCacheMaxEntries(100);
+        cache = new AiResponseCache(appSettings, mock(StringRedisTemplate.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void normalizesWhitespaceIntoOneKey() {
+        assertThat(cache.keyOf(AI, "answer", "/ai  What is   Java?", null, Map.of()))
+                .isEqualTo(cache.keyOf(AI, "answer", "What is Java?", "", null));
+    }
+
+    @Test
+    void promptsDifferingInCaseKeepSeparateEntries() {
+        assertThat(cache.keyOf(AI, "answer", "/ai What is Java?", null, Map.of()))
+                .isNotEqualTo(cache.keyOf(AI, "answer", "/ai what is java?", null, Map.of()));
+    }
+
+    @Test
+    void commandsSharingAnOperationKeepSeparateEntries() {
+        Command ask = Command.builder().id(2L).command("/ask").type(Command.CommandType.AI_TASK).build();
+
+        assertThat(cache.keyOf(AI, "answer", "/ai question", null, Map.of()))
+                .isNotEqualTo(cache.keyOf(ask, "answer", "/ask question", null, Map.of()));
+    }
+
+    @Test
+    void generationSettingsAreKeyedByValue() {
+        String defaults = cache.keyOf(AI, "answer", "question", null, Map.of());
+
+        assertThat(cache.keyOf(AI, "answer", "question", null, Map.of("temperature", "0.7", "maxTokens", 1000)))
+                .isEqualTo(defaults);
+        assertThat(cache.keyOf(AI, "answer", "question", null, Map.of("temperature", 0.2))).isNotEqualTo(defaults);
+        assertThat(cache.keyOf(AI, "answer", "question", null, Map.of("maxTokens", "50"))).isNotEqualTo(defaults);
+    }
+
+    @Test
+    void unparseableSettingsFallBackToTheDefaults() {
+        String defaults = cache.keyOf(AI, "answer", "question", null, Map.of());
+
+        assertThat(cache.keyOf(AI, "answer", "question", null, Map.of("temperature", "warm", "maxTokens", "lots")))
+                .isEqualTo(defaults);
+        assertThat(cache.keyOf(AI, "answer", "question", null, Map.of("maxTokens", 12.5))).isEqualTo(defaults);
+    }
+
+    @Test
+    void storesAndReturnsResponses() {
+        String key = cache.keyOf(AI, "answer", "question", null, Map.of());
+
+        assertThat(cache.get(key)).isEmpty();
+        cache.put(key, "answer", Duration.ofSeconds(60));
+        assertThat(cache.get(key)).contains("answer");
+    }
+
+    @Test
+    void commandsCanOptOutOrOverrideTheTtl() {
+        ObjectMapper mapper = new ObjectMapper();
+        Command optedOut = Command.builder().parameters(mapper.createObjectNode().put("cache", false)).build();
+        Command shortLived = Command.builder().parameters(mapper.createObjectNode().put("cacheTtlSeconds", 5)).build();
+
+        assertThat(cache.ttlOf(null)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(cache.ttlOf(optedOut)).isZero();
+        assertThat(cache.ttlOf(shortLived)).isEqualTo(Duration.ofSeconds(5));
+    }
+}
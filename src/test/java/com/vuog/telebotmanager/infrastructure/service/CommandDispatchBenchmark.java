@@ -0,0 +1,77 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
+import com.vuog.telebotmanager.infrastructure.handler.DefaultCommandHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message handler selection: the former sort-and-filter scan against the dispatch table
+ * Run with {@code ./gradlew jmh -Pjmh.includes=CommandDispatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+    @Param({"/admin", "/ask", "/start"})
+    public String command;
+
+    private List<CommandHandler> handlers;
+    private CommandDispatchTable table;
+    private CommandContext context;
+
+    @Setup
+    public void setUp() {
+        DefaultCommandHandler fallback = new DefaultCommandHandler(null, null);
+        handlers = new ArrayList<>(List.of(
+                new StubCommandHandler("admin", 10, Set.of(), List.of("/admin role get <userId>")).accepts(false),
+                new StubCommandHandler("moderator", 20, Set.of(), List.of("/mod warn <userId>")).accepts(false),
+                new StubCommandHandler("schedule", 30, Set.of(Command.CommandType.SCHEDULE), List.of()).accepts(false),
+                new StubCommandHandler("reminder", 40, Set.of(Command.CommandType.REMINDER), List.of()).accepts(false),
+                new StubCommandHandler("ai", 50, Set.of(Command.CommandType.AI_ANSWER, Command.CommandType.AI_TASK), List.of("/ai <question>")),
+                new StubCommandHandler("plugin", 60, Set.of(Command.CommandType.PLUGIN), List.of()).accepts(false),
+                new StubCommandHandler("custom", 70, Set.of(Command.CommandType.CUSTOM), List.of()).accepts(false)));
+        handlers.add(fallback);
+        table = new CommandDispatchTable(handlers, fallback);
+
+        Command.CommandType type = "/ask".equals(command) ? Command.CommandType.AI_ANSWER : null;
+        context = CommandDispatchTableTest.context(command, type);
+    }
+
+    @Benchmark
+    public CommandHandler sortAndScan() {
+        // Selection as CommandRouter did it before the dispatch table
+        return handlers.stream()
+                .sorted(Comparator.comparingInt(CommandHandler::getPriority))
+                .filter(CommandHandler::isAvailable)
+                .filter(h -> h.canHandle(context))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Benchmark
+    public CommandHandler dispatchTable() {
+        return table.select(context);
+    }
+}
@@ -0,0 +1,101 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandContext;
+import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
+import com.vuog.telebotmanager.infrastructure.handler.DefaultCommandHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandDispatchTableTest {
+
+    private DefaultCommandHandler fallback;
+    private StubCommandHandler admin;
+    private StubCommandHandler ai;
+    private StubCommandHandler aiOverride;
+    private StubCommandHandler catchAll;
+
+    @BeforeEach
+    void setUp() {
+        fallback = new DefaultCommandHandler(null, null);
+        admin = new StubCommandHandler("admin", 10, Set.of(), List.of("/admin role get <userId>", "/admin role set <userId> <ROLE>"));
+        ai = new StubCommandHandler("ai", 30, Set.of(Command.CommandType.AI_TASK, Command.CommandType.AI_ANSWER), List.of("/ai <question>"));
+        aiOverride = new StubCommandHandler("aiOverride", 20, Set.of(Command.CommandType.AI_ANSWER), List.of());
+        catchAll = new StubCommandHandler("catchAll", 50, Set.of(), List.of());
+    }
+
+    @Test
+    void selectsHandlerByBuiltInCommandName() {
+        CommandDispatchTable table = table(admin, ai, catchAll);
+
+        assertThat(table.select(context("/admin", null))).isSameAs(admin);
+        assertThat(table.select(context("/ai", null))).isSameAs(ai);
+    }
+
+    @Test
+    void selectsHandlerByStoredCommandTypeInPriorityOrder() {
+        CommandDispatchTable table = table(admin, ai, aiOverride, catchAll);
+
+        assertThat(table.select(context("/ask", Command.CommandType.AI_ANSWER))).isSameAs(aiOverride);
+        assertThat(table.select(context("/task", Command.CommandType.AI_TASK))).isSameAs(ai);
+    }
+
+    @Test
+    void mergesTypeAndNameCandidatesByPriority() {
+        StubCommandHandler named = new StubCommandHandler("named", 5, Set.of(), List.of("/ask"));
+        CommandDispatchTable table = table(ai, aiOverride, named);
+
+        assertThat(table.select(context("/ask", Command.CommandType.AI_ANSWER))).isSameAs(named);
+    }
+
+    @Test
+    void skipsUnavailableAndDecliningHandlers() {
+        CommandDispatchTable table = table(ai, aiOverride, catchAll);
+
+        aiOverride.available(false);
+        assertThat(table.select(context("/ask", Command.CommandType.AI_ANSWER))).isSameAs(ai);
+
+        ai.accepts(false);
+        assertThat(table.select(context("/ask", Command.CommandType.AI_ANSWER))).isSameAs(catchAll);
+
+        aiOverride.available(true);
+        assertThat(table.select(context("/ask", Command.CommandType.AI_ANSWER))).isSameAs(aiOverride);
+    }
+
+    @Test
+    void consultsUnkeyedHandlersForUnknownCommands() {
+        CommandDispatchTable table = table(admin, ai, catchAll);
+
+        assertThat(table.select(context("/unknown", null))).isSameAs(catchAll);
+        assertThat(table.select(context("/unknown", Command.CommandType.SCHEDULE))).isSameAs(catchAll);
+    }
+
+    @Test
+    void fallsBackToDefaultHandler() {
+        CommandDispatchTable table = table(admin, ai);
+
+        assertThat(table.select(context("/start", null))).isSameAs(fallback);
+        assertThat(table.select(context("/plugin", Command.CommandType.PLUGIN))).isSameAs(fallback);
+    }
+
+    private CommandDispatchTable table(CommandHandler... handlers) {
+        List<CommandHandler> all = new ArrayList<>(List.of(handlers));
+        all.add(fallback);
+        return new CommandDispatchTable(all, fallback);
+    }
+
+    static CommandContext context(String command, Command.CommandType type) {
+        CommandRequest request = CommandRequest.create("1", "1", "42", "42", command, command + " hello");
+        Command stored = type != null
+                ? Command.builder().command(command).type(type).isEnabled(true).build()
+                : null;
+        return CommandContext.of(request, 1L, stored);
+    }
+}
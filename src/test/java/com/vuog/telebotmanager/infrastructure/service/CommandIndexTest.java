@@ -0,0 +1,122 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.Bot;
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.event.CommandsChangedEvent;
+import com.vuog.telebotmanager.domain.repository.CommandRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommandIndexTest {
+
+    private static final Long BOT_ID = 1L;
+
+    private final CommandRepository commandRepository = mock(CommandRepository.class);
+    private final CommandIndex index = new CommandIndex(commandRepository);
+
+    @Test
+    void botCommandOverridesGlobalOfTheSameName() {
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenReturn(List.of(
+                command(10L, "/help", null), command(11L, "/help", BOT_ID), command(12L, "/start", null)));
+
+        assertThat(index.resolve(BOT_ID, "/help")).map(Command::getId).contains(11L);
+        assertThat(index.resolve(BOT_ID, "/start")).map(Command::getId).contains(12L);
+        assertThat(index.resolve(BOT_ID, "/missing")).isEmpty();
+        assertThat(index.getCommands(BOT_ID)).hasSize(2);
+    }
+
+    @Test
+    void indexIsBuiltOnceAndServedFromMemory() {
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenReturn(List.of(command(10L, "/help", null)));
+
+        index.resolve(BOT_ID, "/help");
+        index.resolve(BOT_ID, "/help");
+        index.getCommands(BOT_ID);
+
+        verify(commandRepository, times(1)).findEnabledCommandsByBotIdOrGlobal(BOT_ID);
+    }
+
+    @Test
+    void disabledOrDeletedCommandsDisappearAfterAChange() {
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenReturn(List.of(
+                command(10L, "/help", null), command(11L, "/help", BOT_ID), command(12L, "/start", BOT_ID)));
+        assertThat(index.resolve(BOT_ID, "/help")).map(Command::getId).contains(11L);
+
+        // The bot's /help is disabled and /start deleted: the global /help shows through again
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenReturn(List.of(command(10L, "/help", null)));
+        index.onCommandsChanged(new CommandsChangedEvent(BOT_ID));
+
+        assertThat(index.resolve(BOT_ID, "/help")).map(Command::getId).contains(10L);
+        assertThat(index.resolve(BOT_ID, "/start")).isEmpty();
+    }
+
+    @Test
+    void globalChangeRebuildsEveryIndexedBot() {
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenReturn(List.of(command(10L, "/help", null)));
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(2L)).thenReturn(List.of(command(10L, "/help", null)));
+        index.resolve(BOT_ID, "/help");
+        index.resolve(2L, "/help");
+
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenReturn(List.of());
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(2L)).thenReturn(List.of());
+        index.onCommandsChanged(new CommandsChangedEvent(null));
+
+        assertThat(index.getLoadedCommands(BOT_ID)).isEmpty();
+        assertThat(index.getLoadedCommands(2L)).isEmpty();
+    }
+
+    @Test
+    void coldBuildThatRacedAGlobalChangeIsRedone() {
+        List<Command> before = List.of(command(10L, "/help", null));
+        List<Command> after = List.of(command(10L, "/help", null), command(12L, "/start", null));
+        AtomicBoolean changed = new AtomicBoolean();
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenAnswer(invocation -> {
+            if (changed.compareAndSet(false, true)) {
+                // The change commits while this query is in flight; the listener does not see the bot yet
+                index.onCommandsChanged(new CommandsChangedEvent(null));
+                return before;
+            }
+            return after;
+        });
+
+        assertThat(index.resolve(BOT_ID, "/start")).map(Command::getId).contains(12L);
+        assertThat(index.getLoadedCommands(BOT_ID)).hasSize(2);
+    }
+
+    @Test
+    void olderBuildNeverReplacesANewerOne() {
+        List<Command> stale = List.of(command(10L, "/help", null));
+        List<Command> fresh = List.of(command(12L, "/start", null));
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(commandRepository.findEnabledCommandsByBotIdOrGlobal(BOT_ID)).thenAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                // A newer rebuild completes while this older one is still querying
+                index.onCommandsChanged(new CommandsChangedEvent(BOT_ID));
+                return stale;
+            }
+            return fresh;
+        });
+
+        index.rebuild(BOT_ID);
+
+        assertThat(index.getLoadedCommands(BOT_ID)).extracting(Command::getId).containsExactly(12L);
+    }
+
+    private static Command command(Long id, String name, Long botId) {
+        return Command.builder()
+                .id(id)
+                .command(name)
+                .isEnabled(true)
+                .type(Command.CommandType.CUSTOM)
+                .bot(botId != null ? Bot.builder().id(botId).build() : null)
+                .build();
+    }
+}
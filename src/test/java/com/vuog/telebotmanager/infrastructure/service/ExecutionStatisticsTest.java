@@ -0,0 +1,109 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ExecutionStatisticsTest {
+
+    private final ExecutionStatistics statistics = new ExecutionStatistics();
+
+    @Test
+    void reportsEmptySnapshotsForUnknownKeys() {
+        assertThat(statistics.getBotStatistics(1L)).isEqualTo(ExecutionStatistics.Snapshot.EMPTY);
+        assertThat(statistics.getCommandStatistics(1L)).isEqualTo(ExecutionStatistics.Snapshot.EMPTY);
+        assertThat(statistics.getOverallStatistics().totalExecutions()).isZero();
+    }
+
+    @Test
+    void aggregatesPerBotPerCommandAndOverall() {
+        statistics.record(1L, 10L, true, 100);
+        statistics.record(1L, 10L, false, 300);
+        statistics.record(1L, null, true, 50);
+        statistics.record(2L, 20L, true, 10);
+
+        ExecutionStatistics.Snapshot bot = statistics.getBotStatistics(1L);
+        assertThat(bot.totalExecutions()).isEqualTo(3);
+        assertThat(bot.successfulExecutions()).isEqualTo(2);
+        assertThat(bot.failedExecutions()).isEqualTo(1);
+        assertThat(bot.successRate()).isCloseTo(66.67, within(0.01));
+        assertThat(bot.averageExecutionTimeMs()).isEqualTo(150);
+        assertThat(bot.lastExecutionAt()).isNotNull();
+
+        ExecutionStatistics.Snapshot command = statistics.getCommandStatistics(10L);
+        assertThat(command.totalExecutions()).isEqualTo(2);
+        assertThat(command.successRate()).isEqualTo(50.0);
+        assertThat(command.p99ExecutionTimeMs()).isBetween(300L, 338L);
+
+        assertThat(statistics.getOverallStatistics().totalExecutions()).isEqualTo(4);
+    }
+
+    @Test
+    void reportsLatencyPercentiles() {
+        for (int elapsed = 1; elapsed <= 100; elapsed++) {
+            statistics.record(1L, null, true, elapsed);
+        }
+
+        ExecutionStatistics.Snapshot snapshot = statistics.getBotStatistics(1L);
+        assertThat(snapshot.p50ExecutionTimeMs()).isBetween(50L, 57L);
+        assertThat(snapshot.p95ExecutionTimeMs()).isBetween(95L, 107L);
+        assertThat(snapshot.p99ExecutionTimeMs()).isBetween(99L, 112L);
+    }
+
+    @Test
+    void dropsCountersOfRemovedBotsAndCommands() {
+        statistics.record(1L, 10L, true, 5);
+
+        statistics.removeBot(1L);
+        statistics.removeCommand(10L);
+
+        assertThat(statistics.getBotStatistics(1L)).isEqualTo(ExecutionStatistics.Snapshot.EMPTY);
+        assertThat(statistics.getCommandStatistics(10L)).isEqualTo(ExecutionStatistics.Snapshot.EMPTY);
+        assertThat(statistics.getOverallStatistics().totalExecutions()).isEqualTo(1);
+    }
+
+    @Test
+    void countsEveryExecutionUnderConcurrentRecording() throws Exception {
+        int threads = 16;
+        int executionsPerThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long botId = t % 4;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < executionsPerThread; i++) {
+                        statistics.record(botId, 100L, i % 10 != 0, 2);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = (long) threads * executionsPerThread;
+        ExecutionStatistics.Snapshot command = statistics.getCommandStatistics(100L);
+        assertThat(command.totalExecutions()).isEqualTo(total);
+        assertThat(command.failedExecutions()).isEqualTo(total / 10);
+        assertThat(command.averageExecutionTimeMs()).isEqualTo(2);
+        for (long botId = 0; botId < 4; botId++) {
+            assertThat(statistics.getBotStatistics(botId).totalExecutions()).isEqualTo(total / 4);
+        }
+        assertThat(statistics.getOverallStatistics().successfulExecutions()).isEqualTo(total - total / 10);
+    }
+}
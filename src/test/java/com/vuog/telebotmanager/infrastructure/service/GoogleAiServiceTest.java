@@ -0,0 +1,154 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoogleAiServiceTest {
+
+    private static final int TIMEOUT_MS = 500;
+    private static final String CHUNK = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"%s\"}]}}]}";
+
+    private final ExecutorService serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private HttpServer server;
+    private AppSettings appSettings;
+    private GoogleAiService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16);
+        server.createContext("/v1beta/models/complete:streamGenerateContent", exchange -> stream(exchange, false));
+        server.createContext("/v1beta/models/stalled:streamGenerateContent", exchange -> stream(exchange, true));
+        server.createContext("/v1beta/models/stalled:generateContent", GoogleAiServiceTest::stalledBody);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        appSettings = new AppSettings();
+        appSettings.getAi().setEnabled(true);
+        appSettings.getAi().setApiKey("test-key");
+        appSettings.getAi().setTemperature(0.7);
+        appSettings.getAi().setMaxTokens(100);
+        appSettings.getAi().setTimeoutMs(TIMEOUT_MS);
+        appSettings.getAi().setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        service = new GoogleAiService(appSettings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void streamsChunksUntilTheEventStreamEnds() {
+        appSettings.getAi().setModel("complete");
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        assertThat(service.generateContent("prompt", Map.of(), chunks::add)).isEqualTo("Hello world");
+        assertThat(chunks).containsExactly("Hello", " world");
+    }
+
+    @Test
+    void streamedSummaryStopsAtTheLengthTheFinalTextKeeps() {
+        appSettings.getAi().setModel("complete");
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        assertThat(service.summarizeText("long text", Map.of("maxLength", 8), chunks::add)).isEqualTo("Hello wo...");
+        assertThat(String.join("", chunks)).isEqualTo("Hello wo");
+    }
+
+    @Test
+    void stalledStreamFailsWithATimeoutAtTheDeadline() {
+        appSettings.getAi().setModel("stalled");
+        List<String> chunks = new CopyOnWriteArrayList<>();
+        long startedAt = System.nanoTime();
+
+        assertThatThrownBy(() -> service.generateContent("prompt", Map.of(), chunks::add))
+                .satisfies(error -> assertThat(timeoutIn(error)).isTrue());
+        assertThat((System.nanoTime() - startedAt) / 1_000_000).isLessThan(TIMEOUT_MS * 4L);
+        assertThat(chunks).containsExactly("Hello");
+    }
+
+    @Test
+    void stalledBodyFailsWithATimeoutAtTheDeadline() {
+        appSettings.getAi().setModel("stalled");
+        long startedAt = System.nanoTime();
+
+        assertThatThrownBy(() -> service.generateContent("prompt", Map.of()))
+                .satisfies(error -> assertThat(timeoutIn(error)).isTrue());
+        assertThat((System.nanoTime() - startedAt) / 1_000_000).isLessThan(TIMEOUT_MS * 4L);
+    }
+
+    private static boolean timeoutIn(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stub SSE stream; a stalled stream sends its first event and then holds the connection open
+     */
+    private static void stream(HttpExchange exchange, boolean stall) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(event("Hello"));
+            out.flush();
+            if (stall) {
+                sleepQuietly(TIMEOUT_MS * 10L);
+            }
+            out.write(event(" world"));
+        } catch (IOException e) {
+            // Connection closed by the client
+        }
+    }
+
+    private static void stalledBody(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write("{\"candidates\":".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleepQuietly(TIMEOUT_MS * 10L);
+        } catch (IOException e) {
+            // Connection closed by the client
+        }
+    }
+
+    private static byte[] event(String text) {
+        return ("data: " + CHUNK.formatted(text) + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
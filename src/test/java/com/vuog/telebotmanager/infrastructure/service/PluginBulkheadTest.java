@@ -0,0 +1,123 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PluginBulkheadTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(100);
+
+    private final PluginBulkhead bulkhead = new PluginBulkhead("test", 1, 1, 2, OPEN_DURATION);
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void opensAfterConsecutiveTimeouts() {
+        bulkhead.onTimeout(bulkhead.tryAcquire());
+        assertThat(bulkhead.tryAcquire()).isNotNull();
+
+        bulkhead.onTimeout(bulkhead.tryAcquire());
+        assertThat(bulkhead.tryAcquire()).isNull();
+    }
+
+    @Test
+    void completionResetsTheTimeoutCount() {
+        bulkhead.onTimeout(bulkhead.tryAcquire());
+        bulkhead.onCompleted(bulkhead.tryAcquire());
+        bulkhead.onTimeout(bulkhead.tryAcquire());
+
+        assertThat(bulkhead.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void letsOneTrialThroughAfterTheOpenPeriodAndClosesOnItsSuccess() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        PluginBulkhead.Permit trial = bulkhead.tryAcquire();
+        assertThat(trial).isNotNull();
+        assertThat(trial.trial()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isNull();
+
+        bulkhead.onCompleted(trial);
+        PluginBulkhead.Permit next = bulkhead.tryAcquire();
+        assertThat(next).isNotNull();
+        assertThat(next.trial()).isFalse();
+    }
+
+    @Test
+    void reopensWhenTheTrialTimesOut() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        bulkhead.onTimeout(bulkhead.tryAcquire());
+
+        assertThat(bulkhead.tryAcquire()).isNull();
+    }
+
+    @Test
+    void releasedTrialCanBeTakenAgain() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        bulkhead.release(bulkhead.tryAcquire());
+
+        assertThat(bulkhead.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void lateCompletionOfACallAdmittedBeforeOpeningDoesNotClose() {
+        PluginBulkhead.Permit slow = bulkhead.tryAcquire();
+        open();
+
+        bulkhead.onCompleted(slow);
+
+        assertThat(bulkhead.tryAcquire()).isNull();
+    }
+
+    @Test
+    void lateTimeoutsOfAnEarlierPeriodDoNotCountAgainstTheClosedBreaker() throws InterruptedException {
+        PluginBulkhead.Permit stale1 = bulkhead.tryAcquire();
+        PluginBulkhead.Permit stale2 = bulkhead.tryAcquire();
+        open();
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+        bulkhead.onCompleted(bulkhead.tryAcquire());
+
+        bulkhead.onTimeout(stale1);
+        bulkhead.onTimeout(stale2);
+
+        assertThat(bulkhead.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void rejectsWorkBeyondPoolAndQueue() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.submit(() -> {
+            running.countDown();
+            release.await();
+            return null;
+        });
+        running.await();
+        bulkhead.submit(() -> null);
+
+        assertThatThrownBy(() -> bulkhead.submit(() -> null)).isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+    }
+
+    private void open() {
+        bulkhead.onTimeout(bulkhead.tryAcquire());
+        bulkhead.onTimeout(bulkhead.tryAcquire());
+        assertThat(bulkhead.tryAcquire()).isNull();
+    }
+}
@@ -0,0 +1,62 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PluginCompilerTest {
+
+    private final PluginCompiler compiler = new PluginCompiler();
+
+    @Test
+    void resolvesDependenciesThroughTheApplicationClassLoader() throws Exception {
+        String source = """
+                import com.fasterxml.jackson.databind.ObjectMapper;
+                import java.util.Map;
+
+                public class JsonPlugin {
+                    public String execute(String input, Map<String, Object> parameters) throws Exception {
+                        return new ObjectMapper().writeValueAsString(Map.of("echo", input));
+                    }
+                }
+                """;
+
+        Map<String, byte[]> classes = compiler.compile("JsonPlugin", source);
+        Class<?> pluginClass = compiler.define("JsonPlugin", classes);
+        Object plugin = pluginClass.getConstructor().newInstance();
+
+        assertThat(pluginClass.getMethod("execute", String.class, Map.class).invoke(plugin, "hi", Map.of()))
+                .isEqualTo("{\"echo\":\"hi\"}");
+    }
+
+    @Test
+    void keepsNestedClasses() {
+        String source = """
+                public class Outer {
+                    static class Inner {
+                    }
+                }
+                """;
+
+        assertThat(compiler.compile("Outer", source)).containsOnlyKeys("Outer", "Outer$Inner");
+    }
+
+    @Test
+    void reportsCompilationErrors() {
+        assertThatThrownBy(() -> compiler.compile("Broken", "public class Broken { int x = ; }"))
+                .isInstanceOf(PluginCompiler.PluginCompilationException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    @Test
+    void cacheKeyIsStablePerSourceAndEnvironment() {
+        String key = compiler.cacheKey("public class A {}");
+
+        assertThat(new PluginCompiler().cacheKey("public class A {}")).isEqualTo(key);
+        assertThat(compiler.cacheKey("public class B {}")).isNotEqualTo(key);
+        assertThat(key).hasSize(64);
+    }
+}
@@ -0,0 +1,132 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vuog.telebotmanager.domain.entity.BotPlugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PluginEntryPointTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void prefersConventionalEntryMethod() throws Throwable {
+        PluginEntryPoint entryPoint = PluginEntryPoint.resolve(plugin(null, null), Greeter.class);
+
+        assertThat(entryPoint.invoke(entryPoint.instance(), "Ann", Map.of("greeting", "Hi")))
+                .isEqualTo("Hi Ann");
+    }
+
+    @Test
+    void configuredMethodNameWins() throws Throwable {
+        PluginEntryPoint entryPoint = PluginEntryPoint.resolve(plugin("shout", null), Greeter.class);
+
+        assertThat(entryPoint.invoke(entryPoint.instance(), "ann", Map.of())).isEqualTo("ANN");
+    }
+
+    @Test
+    void adaptsSupportedSignatures() throws Throwable {
+        assertThat(invoke(plugin("noArgs", null), Shapes.class)).isEqualTo("none");
+        assertThat(invoke(plugin("inputOnly", null), Shapes.class)).isEqualTo("input:text");
+        assertThat(invoke(plugin("parametersOnly", null), Shapes.class)).isEqualTo("parameters:1");
+        assertThat(invoke(plugin("staticEntry", null), Shapes.class)).isEqualTo("static:text");
+    }
+
+    @Test
+    void staticEntryPointNeedsNoInstance() {
+        PluginEntryPoint entryPoint = PluginEntryPoint.resolve(plugin("staticEntry", null), Shapes.class);
+
+        assertThat(entryPoint.instance()).isNull();
+    }
+
+    @Test
+    void perCallLifecycleCreatesAnInstancePerExecution() {
+        PluginEntryPoint entryPoint = PluginEntryPoint.resolve(plugin(null, null), Counter.class);
+
+        assertThat(entryPoint.getLifecycle()).isEqualTo(PluginEntryPoint.Lifecycle.PER_CALL);
+        assertThat(entryPoint.instance()).isNotSameAs(entryPoint.instance());
+    }
+
+    @Test
+    void singletonLifecycleReusesOneInstance() throws Throwable {
+        PluginEntryPoint entryPoint = PluginEntryPoint.resolve(plugin(null, "singleton"), Counter.class);
+
+        Object instance = entryPoint.instance();
+        assertThat(entryPoint.getLifecycle()).isEqualTo(PluginEntryPoint.Lifecycle.SINGLETON);
+        assertThat(entryPoint.instance()).isSameAs(instance);
+        entryPoint.invoke(instance, "", Map.of());
+        assertThat(entryPoint.invoke(entryPoint.instance(), "", Map.of())).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsClassesWithoutEntryMethod() {
+        assertThatThrownBy(() -> PluginEntryPoint.resolve(plugin(null, null), NoEntry.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No suitable execution method");
+    }
+
+    private static Object invoke(BotPlugin plugin, Class<?> pluginClass) throws Throwable {
+        PluginEntryPoint entryPoint = PluginEntryPoint.resolve(plugin, pluginClass);
+        return entryPoint.invoke(entryPoint.instance(), "text", Map.of("key", "value"));
+    }
+
+    private static BotPlugin plugin(String methodName, String lifecycle) {
+        return BotPlugin.builder()
+                .name("test-plugin")
+                .version("1.0.0")
+                .methodName(methodName)
+                .metadata(lifecycle != null ? MAPPER.createObjectNode().put("lifecycle", lifecycle) : null)
+                .build();
+    }
+
+    public static class Greeter {
+
+        public String shout(String input) {
+            return input.toUpperCase();
+        }
+
+        public String execute(String input, Map<String, Object> parameters) {
+            return parameters.getOrDefault("greeting", "Hello") + " " + input;
+        }
+    }
+
+    public static class Shapes {
+
+        public String noArgs() {
+            return "none";
+        }
+
+        public String inputOnly(String input) {
+            return "input:" + input;
+        }
+
+        public String parametersOnly(Map<String, Object> parameters) {
+            return "parameters:" + parameters.size();
+        }
+
+        public static String staticEntry(String input) {
+            return "static:" + input;
+        }
+    }
+
+    public static class Counter {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        public int execute(String input, Map<String, Object> parameters) {
+            return calls.incrementAndGet();
+        }
+    }
+
+    public static class NoEntry {
+
+        public String unsupported(int value, long other) {
+            return "never";
+        }
+    }
+}
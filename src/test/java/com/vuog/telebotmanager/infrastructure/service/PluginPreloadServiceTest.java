@@ -0,0 +1,73 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.application.usecase.PluginManagementUseCase;
+import com.vuog.telebotmanager.domain.entity.BotPlugin;
+import com.vuog.telebotmanager.domain.repository.PluginRepository;
+import com.vuog.telebotmanager.domain.service.PluginManager;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PluginPreloadServiceTest {
+
+    private static final BotPlugin PLUGIN = BotPlugin.builder()
+            .id("p1").name("echo").status(BotPlugin.PluginStatus.ACTIVE).build();
+
+    private final PluginRepository pluginRepository = mock(PluginRepository.class);
+    private final PluginManager pluginManager = mock(PluginManager.class);
+    private final AppSettings appSettings = new AppSettings();
+
+    private PluginPreloadService preloadService;
+
+    @BeforeEach
+    void setUp() {
+        appSettings.getPluginDefaults().setWarmupIterations(5);
+        when(pluginRepository.findByStatusInWithSource(anyList())).thenReturn(List.of(PLUGIN));
+        when(pluginManager.isPluginLoaded("echo")).thenReturn(true);
+        preloadService = new PluginPreloadService(pluginRepository, pluginManager,
+                mock(PluginManagementUseCase.class), appSettings);
+    }
+
+    @Test
+    void fullBulkheadSkipsTheWarmUpOfALoadedPlugin() throws Exception {
+        doThrow(new RejectedExecutionException("Plugin pool and queue are full"))
+                .when(pluginManager).warmUpPlugin(eq("echo"), any(), anyInt());
+
+        preloadService.startPreload().get(5, TimeUnit.SECONDS);
+
+        PluginPreloadService.PreloadReport report = preloadService.getReport();
+        assertThat(report.getLoaded()).isEqualTo(1);
+        assertThat(report.getFailed()).isZero();
+        assertThat(report.getPlugins()).singleElement().satisfies(status -> {
+            assertThat(status.getState()).isEqualTo(PluginPreloadService.PluginPreloadState.LOADED);
+            assertThat(status.isWarmupSkipped()).isTrue();
+            assertThat(status.getError()).isNull();
+        });
+    }
+
+    @Test
+    void failedWarmUpMarksThePluginFailed() throws Exception {
+        doThrow(new IllegalStateException("Warm-up of plugin echo timed out after 1s"))
+                .when(pluginManager).warmUpPlugin(eq("echo"), any(), anyInt());
+
+        preloadService.startPreload().get(5, TimeUnit.SECONDS);
+
+        PluginPreloadService.PreloadReport report = preloadService.getReport();
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getPlugins()).singleElement().satisfies(status ->
+                assertThat(status.getState()).isEqualTo(PluginPreloadService.PluginPreloadState.FAILED));
+    }
+}
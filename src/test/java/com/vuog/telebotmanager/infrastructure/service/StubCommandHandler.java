@@ -0,0 +1,79 @@
+package com.vuog.telebotmanager.infrastructure.service;
+
+import com.vuog.telebotmanager.domain.entity.Command;
+import com.vuog.telebotmanager.domain.service.CommandHandler;
+import com.vuog.telebotmanager.domain.valueobject.CommandRequest;
+import com.vuog.telebotmanager.domain.valueobject.CommandResponse;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configurable command handler for dispatch tests and benchmarks
+ */
+class StubCommandHandler implements CommandHandler {
+
+    private final String name;
+    private final int priority;
+    private final Set<Command.CommandType> types;
+    private final List<String> commands;
+    private volatile boolean available = true;
+    private volatile boolean accepts = true;
+
+    StubCommandHandler(String name, int priority, Set<Command.CommandType> types, List<String> commands) {
+        this.name = name;
+        this.priority = priority;
+        this.types = types;
+        this.commands = commands;
+    }
+
+    StubCommandHandler available(boolean available) {
+        this.available = available;
+        return this;
+    }
+
+    StubCommandHandler accepts(boolean accepts) {
+        this.accepts = accepts;
+        return this;
+    }
+
+    @Override
+    public boolean canHandle(CommandRequest request) {
+        return accepts;
+    }
+
+    @Override
+    public CommandResponse execute(CommandRequest request) {
+        return CommandResponse.success(request.getCommandId(), name);
+    }
+
+    @Override
+    public String getSupportedCommandType() {
+        return name;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public List<String> getSupportedCommands() {
+        return commands;
+    }
+
+    @Override
+    public Set<Command.CommandType> getSupportedCommandTypes() {
+        return types;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,217 @@
+package com.vuog.telebotmanager.infrastructure.telegram;
+
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboundDispatcherTest {
+
+    private static final Long BOT_ID = 1L;
+    private static final long TOLERANCE_MS = 100;
+
+    private final AppSettings appSettings = new AppSettings();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AbsSender sender = mock(AbsSender.class);
+
+    private OutboundDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        appSettings.getTelegram().setOutboundBotPerSecond(100);
+        appSettings.getTelegram().setOutboundChatPerSecond(100);
+        appSettings.getTelegram().setOutboundMaxRetries(3);
+        dispatcher = new OutboundDispatcher(appSettings, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void chatBucketPacesSendsToOneChat() throws Exception {
+        appSettings.getTelegram().setOutboundChatPerSecond(2);
+        List<Sent> sent = recordSends();
+        dispatcher.registerBot(BOT_ID, sender);
+
+        List<CompletableFuture<Message>> calls = List.of(
+                send("42", "a"), send("42", "b"), send("42", "c"), send("42", "d"));
+        awaitAll(calls);
+
+        // Two sends use the full bucket, the other two wait half a second each for a token
+        assertThat(sent).extracting(Sent::text).containsExactly("a", "b", "c", "d");
+        assertThat(millisBetween(sent.get(0), sent.get(3))).isGreaterThanOrEqualTo(1000 - TOLERANCE_MS);
+    }
+
+    @Test
+    void botBucketPacesSendsAcrossChats() throws Exception {
+        appSettings.getTelegram().setOutboundBotPerSecond(5);
+        List<Sent> sent = recordSends();
+        dispatcher.registerBot(BOT_ID, sender);
+
+        List<CompletableFuture<Message>> calls = new ArrayList<>();
+        for (int chat = 1; chat <= 10; chat++) {
+            calls.add(send(String.valueOf(chat), "hello"));
+        }
+        awaitAll(calls);
+
+        // Every chat has a token, but the bot only has five per second
+        assertThat(sent).hasSize(10);
+        assertThat(millisBetween(sent.get(0), sent.get(9))).isGreaterThanOrEqualTo(1000 - TOLERANCE_MS);
+    }
+
+    @Test
+    void retryAfterPausesEveryChatOfTheBot() throws Exception {
+        TelegramApiRequestException floodControl = requestException(429, 1);
+        Map<String, Integer> attempts = new ConcurrentHashMap<>();
+        List<Sent> sent = new CopyOnWriteArrayList<>();
+        when(sender.execute(any(SendMessage.class))).thenAnswer(invocation -> {
+            SendMessage message = invocation.getArgument(0);
+            sent.add(new Sent(message.getText(), System.nanoTime()));
+            if (attempts.merge(message.getChatId(), 1, Integer::sum) == 1 && message.getChatId().equals("1")) {
+                throw floodControl;
+            }
+            return new Message();
+        });
+        dispatcher.registerBot(BOT_ID, sender);
+
+        CompletableFuture<Message> throttled = send("1", "first");
+        awaitThrottled();
+        CompletableFuture<Message> other = send("2", "second");
+        awaitAll(List.of(throttled, other));
+
+        Sent rejected = sent.get(0);
+        Sent otherChat = sent.stream().filter(s -> s.text().equals("second")).findFirst().orElseThrow();
+        assertThat(millisBetween(rejected, otherChat)).isGreaterThanOrEqualTo(1000 - TOLERANCE_MS);
+        assertThat(attempts).containsEntry("1", 2).containsEntry("2", 1);
+    }
+
+    @Test
+    void sendIsNotRepeatedAfterAReadTimeout() throws Exception {
+        TelegramApiException readTimeout = new TelegramApiException("Unable to execute sendmessage method",
+                new SocketTimeoutException("Read timed out"));
+        when(sender.execute(any(SendMessage.class))).thenThrow(readTimeout).thenReturn(new Message());
+        dispatcher.registerBot(BOT_ID, sender);
+
+        CompletableFuture<Message> call = send("42", "hello");
+
+        // Telegram may already have delivered the message; a retry would post it twice
+        assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCause(readTimeout);
+        verify(sender, times(1)).execute(any(SendMessage.class));
+    }
+
+    @Test
+    void sendIsRetriedWhenTheConnectionWasRefused() throws Exception {
+        TelegramApiException refused = new TelegramApiException("Unable to execute sendmessage method",
+                new ConnectException("Connection refused"));
+        when(sender.execute(any(SendMessage.class))).thenThrow(refused).thenReturn(new Message());
+        dispatcher.registerBot(BOT_ID, sender);
+
+        assertThat(send("42", "hello").get(5, TimeUnit.SECONDS)).isNotNull();
+        verify(sender, times(2)).execute(any(SendMessage.class));
+    }
+
+    @Test
+    void serverErrorFailsASendButRetriesAnEdit() throws Exception {
+        TelegramApiRequestException badGateway = requestException(502, null);
+        when(sender.execute(any(SendMessage.class))).thenThrow(badGateway);
+        when(sender.execute(any(EditMessageText.class))).thenThrow(badGateway).thenReturn(Boolean.TRUE);
+        dispatcher.registerBot(BOT_ID, sender);
+
+        CompletableFuture<Message> message = send("42", "hello");
+        CompletableFuture<Serializable> edit = dispatcher.submit(BOT_ID, "43",
+                EditMessageText.builder().chatId("43").messageId(7).text("edited").build());
+
+        assertThatThrownBy(() -> message.get(5, TimeUnit.SECONDS)).hasCause(badGateway);
+        assertThat(edit.get(5, TimeUnit.SECONDS)).isEqualTo(Boolean.TRUE);
+        verify(sender, times(1)).execute(any(SendMessage.class));
+        verify(sender, times(2)).execute(any(EditMessageText.class));
+    }
+
+    @Test
+    void clientErrorIsNotRetried() throws Exception {
+        TelegramApiRequestException badRequest = requestException(400, null);
+        when(sender.execute(any(EditMessageText.class))).thenThrow(badRequest);
+        dispatcher.registerBot(BOT_ID, sender);
+
+        CompletableFuture<Serializable> edit = dispatcher.submit(BOT_ID, "42",
+                EditMessageText.builder().chatId("42").messageId(7).text("edited").build());
+
+        assertThatThrownBy(() -> edit.get(5, TimeUnit.SECONDS)).hasCause(badRequest);
+        verify(sender, times(1)).execute(any(EditMessageText.class));
+    }
+
+    private CompletableFuture<Message> send(String chatId, String text) {
+        return dispatcher.submit(BOT_ID, chatId, SendMessage.builder().chatId(chatId).text(text).build());
+    }
+
+    private List<Sent> recordSends() throws TelegramApiException {
+        List<Sent> sent = new CopyOnWriteArrayList<>();
+        when(sender.execute(any(SendMessage.class))).thenAnswer(invocation -> {
+            SendMessage message = invocation.getArgument(0);
+            sent.add(new Sent(message.getText(), System.nanoTime()));
+            return new Message();
+        });
+        return sent;
+    }
+
+    private void awaitThrottled() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("telegram.outbound.throttled").counter().count() < 1) {
+            assertThat(System.nanoTime()).as("bot was not throttled").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static TelegramApiRequestException requestException(int code, Integer retryAfter) {
+        TelegramApiRequestException exception = mock(TelegramApiRequestException.class);
+        when(exception.getErrorCode()).thenReturn(code);
+        if (retryAfter != null) {
+            ResponseParameters parameters = mock(ResponseParameters.class);
+            when(parameters.getRetryAfter()).thenReturn(retryAfter);
+            when(exception.getParameters()).thenReturn(parameters);
+        }
+        return exception;
+    }
+
+    private static void awaitAll(List<? extends CompletableFuture<?>> calls) throws Exception {
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    }
+
+    private static long millisBetween(Sent first, Sent last) {
+        return TimeUnit.NANOSECONDS.toMillis(last.atNanos() - first.atNanos());
+    }
+
+    private record Sent(String text, long atNanos) {
+    }
+}
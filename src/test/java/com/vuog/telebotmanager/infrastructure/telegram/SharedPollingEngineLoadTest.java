@@ -0,0 +1,214 @@
+package com.vuog.telebotmanager.infrastructure.telegram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the shared polling engine for many bots against a local stub of the Telegram Bot API
+ */
+class SharedPollingEngineLoadTest {
+
+    private static final int BOTS = 500;
+    private static final int UPDATES_PER_BOT = 3;
+    private static final int POLLING_THREADS = 4;
+
+    private final ExecutorService serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, AtomicLong> confirmedOffsets = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpServer server;
+    private AppSettings appSettings;
+    private UpdateScheduler updateScheduler;
+    private SharedPollingEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BOTS * 2);
+        server.createContext("/", this::getUpdates);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        appSettings = new AppSettings();
+        appSettings.getTelegram().setPollingThreads(POLLING_THREADS);
+        appSettings.getTelegram().setLongPollTimeoutSeconds(1);
+        updateScheduler = mock(UpdateScheduler.class);
+        engine = new SharedPollingEngine(new ObjectMapper(), updateScheduler, appSettings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void pollsManyBotsFromASmallSharedPool() throws Exception {
+        int threadsBefore = engineThreadCount();
+        Map<Long, Queue<Integer>> received = new ConcurrentHashMap<>();
+
+        for (long botId = 1; botId <= BOTS; botId++) {
+            Queue<Integer> updates = new ConcurrentLinkedQueue<>();
+            received.put(botId, updates);
+            engine.register(botId, bot(botId, update -> updates.add(update.getUpdateId())));
+        }
+
+        // Every bot gets all its updates in order and confirms them with the next offset
+        awaitCondition(() -> confirmedOffsets.size() == BOTS
+                && confirmedOffsets.values().stream().allMatch(offset -> offset.get() > UPDATES_PER_BOT), 30);
+        received.forEach((botId, updates) ->
+                assertThat(List.copyOf(updates)).as("updates of bot %d", botId).containsExactly(1, 2, 3));
+
+        // Engine threads: the poll pool, its timer and the HTTP client's selector
+        int engineThreads = engineThreadCount() - threadsBefore;
+        assertThat(engineThreads).isLessThanOrEqualTo(POLLING_THREADS + 2);
+
+        List<CompletableFuture<Void>> stopped = new ArrayList<>();
+        for (long botId = 1; botId <= BOTS; botId++) {
+            stopped.add(engine.unregister(botId));
+        }
+        CompletableFuture.allOf(stopped.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void pausesPollingWhileTheUpdateQueueIsFull() throws Exception {
+        AtomicInteger pending = new AtomicInteger(appSettings.getTelegram().getUpdateQueueCapacity());
+        AtomicInteger backlogChecks = new AtomicInteger();
+        when(updateScheduler.getPendingCount(anyLong())).thenAnswer(invocation -> {
+            backlogChecks.incrementAndGet();
+            return pending.get();
+        });
+        Queue<Integer> updates = new ConcurrentLinkedQueue<>();
+        engine.register(1L, bot(1L, update -> updates.add(update.getUpdateId())));
+
+        // The engine found the queue full several times and fetched nothing in between
+        awaitCondition(() -> backlogChecks.get() >= 3, 10);
+        assertThat(requests.get()).isZero();
+
+        pending.set(0);
+        awaitCondition(() -> updates.size() == UPDATES_PER_BOT, 10);
+        assertThat(List.copyOf(updates)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void refetchesUpdatesRejectedByAFullQueue() throws Exception {
+        Queue<Integer> updates = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejections = new AtomicInteger(1);
+        engine.register(1L, bot(1L, update -> {
+            if (update.getUpdateId() == 2 && rejections.getAndDecrement() > 0) {
+                return false;
+            }
+            return updates.add(update.getUpdateId());
+        }));
+
+        awaitCondition(() -> updates.size() == UPDATES_PER_BOT, 10);
+        assertThat(List.copyOf(updates)).containsExactly(1, 2, 3);
+    }
+
+    private TelegramBotInstance bot(long botId, Predicate<Update> dispatch) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/bot");
+        TelegramBotInstance instance = mock(TelegramBotInstance.class);
+        when(instance.getOptions()).thenReturn(options);
+        when(instance.getBotToken()).thenReturn("token-" + botId);
+        when(instance.dispatch(any())).thenAnswer(invocation -> dispatch.test(invocation.getArgument(0)));
+        return instance;
+    }
+
+    /**
+     * Stub getUpdates: serves updates 1..3 from the requested offset, otherwise holds the long poll
+     */
+    private void getUpdates(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String token = exchange.getRequestURI().getPath().replaceFirst("^/bot", "").replaceFirst("/getUpdates$", "");
+        long offset = queryParameter(exchange.getRequestURI(), "offset");
+        long limit = queryParameter(exchange.getRequestURI(), "limit");
+        confirmedOffsets.computeIfAbsent(token, t -> new AtomicLong()).accumulateAndGet(offset, Math::max);
+
+        StringBuilder result = new StringBuilder();
+        for (long id = Math.max(1, offset); id <= UPDATES_PER_BOT && id < Math.max(1, offset) + limit; id++) {
+            if (!result.isEmpty()) {
+                result.append(',');
+            }
+            result.append("{\"update_id\":").append(id).append('}');
+        }
+        if (result.isEmpty()) {
+            try {
+                Thread.sleep(queryParameter(exchange.getRequestURI(), "timeout") * 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        byte[] body = ("{\"ok\":true,\"result\":[" + result + "]}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // Long poll aborted by the engine
+            exchange.close();
+        }
+    }
+
+    private static long queryParameter(URI uri, String name) {
+        for (String pair : uri.getQuery().split("&")) {
+            String[] parts = pair.split("=", 2);
+            if (parts[0].equals(name)) {
+                return Long.parseLong(parts[1]);
+            }
+        }
+        return 0;
+    }
+
+    private static int engineThreadCount() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .map(Thread::getName)
+                .filter(name -> name.startsWith("telegram-poll") || name.startsWith("HttpClient"))
+                .count();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within %ds", seconds).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
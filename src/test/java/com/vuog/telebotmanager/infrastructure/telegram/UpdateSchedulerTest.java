@@ -0,0 +1,163 @@
+package com.vuog.telebotmanager.infrastructure.telegram;
+
+import com.vuog.telebotmanager.infrastructure.config.AppSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpdateSchedulerTest {
+
+    private final AppSettings appSettings = new AppSettings();
+    private UpdateScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        appSettings.getTelegram().setUpdateQueueCapacity(10);
+        scheduler = new UpdateScheduler(appSettings, new SimpleMeterRegistry());
+        scheduler.registerBot(1L, "test_bot");
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void runsTasksAndCountsThemUntilDone() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(1);
+
+        assertThat(scheduler.submit(1L, "chat", () -> {
+            awaitQuietly(release);
+            ran.countDown();
+        })).isTrue();
+
+        assertThat(scheduler.getPendingCount(1L)).isEqualTo(1);
+        release.countDown();
+        assertThat(ran.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.awaitIdle(Duration.ofSeconds(1))).isZero();
+    }
+
+    @Test
+    void deferredRepliesStayPendingUntilTheyComplete() throws Exception {
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        scheduler.submit(1L, "chat", () -> scheduler.trackDeferred(1L, reply));
+
+        // The update's task has returned but its reply is still being produced
+        assertThat(scheduler.awaitIdle(Duration.ofMillis(200))).isEqualTo(1);
+
+        reply.complete("answer");
+        assertThat(scheduler.awaitIdle(Duration.ofSeconds(1))).isZero();
+    }
+
+    @Test
+    void failedDeferredRepliesAreNoLongerPending() throws Exception {
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        scheduler.trackDeferred(1L, reply);
+        scheduler.trackDeferred(1L, CompletableFuture.completedFuture("done"));
+        scheduler.trackDeferred(2L, new CompletableFuture<>());
+
+        assertThat(scheduler.getTotalPendingCount()).isEqualTo(1);
+        reply.completeExceptionally(new IllegalStateException("AI failed"));
+        assertThat(scheduler.awaitIdle(Duration.ofSeconds(1))).isZero();
+    }
+
+    @Test
+    void rejectsUpdatesBeyondTheQueueCapacity() {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 10; i++) {
+            assertThat(scheduler.submit(1L, "chat", () -> awaitQuietly(release))).isTrue();
+        }
+
+        assertThat(scheduler.submit(1L, "chat", () -> { })).isFalse();
+        assertThat(scheduler.submit(2L, "chat", () -> { })).isFalse();
+        release.countDown();
+    }
+
+    @Test
+    void runsOneChatsUpdatesInOrderOneAtATime() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            int update = i;
+            scheduler.submit(1L, "chat", () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(update);
+                running.decrementAndGet();
+            });
+        }
+
+        assertThat(scheduler.awaitIdle(Duration.ofSeconds(5))).isZero();
+        assertThat(order).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(peak.get()).isEqualTo(1);
+    }
+
+    @Test
+    void runsDifferentChatsInParallel() throws Exception {
+        // Each chat's update waits for the other's; run one after the other, both would time out
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        List<Boolean> met = new CopyOnWriteArrayList<>();
+        for (String chat : List.of("chat-1", "chat-2")) {
+            scheduler.submit(1L, chat, () -> {
+                bothRunning.countDown();
+                try {
+                    met.add(bothRunning.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        assertThat(scheduler.awaitIdle(Duration.ofSeconds(10))).isZero();
+        assertThat(met).containsExactly(true, true);
+    }
+
+    @Test
+    void busyChatYieldsItsWorkerToOtherChats() throws Exception {
+        appSettings.getTelegram().setUpdateWorkerMode("platform");
+        appSettings.getTelegram().setUpdateWorkers(1);
+        appSettings.getTelegram().setUpdateQueueCapacity(100);
+        UpdateScheduler singleWorker = new UpdateScheduler(appSettings, new SimpleMeterRegistry());
+        singleWorker.registerBot(1L, "test_bot");
+        try {
+            List<String> order = new CopyOnWriteArrayList<>();
+            CountDownLatch release = new CountDownLatch(1);
+            singleWorker.submit(1L, "busy", () -> {
+                awaitQuietly(release);
+                order.add("busy");
+            });
+            for (int i = 1; i < 40; i++) {
+                singleWorker.submit(1L, "busy", () -> order.add("busy"));
+            }
+            singleWorker.submit(1L, "quiet", () -> order.add("quiet"));
+            release.countDown();
+
+            assertThat(singleWorker.awaitIdle(Duration.ofSeconds(5))).isZero();
+            // The busy chat gives up the only worker after one drain batch of 16 updates
+            assertThat(order).hasSize(41);
+            assertThat(order.indexOf("quiet")).isEqualTo(16);
+        } finally {
+            singleWorker.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
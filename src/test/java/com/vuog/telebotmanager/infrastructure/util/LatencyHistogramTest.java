@@ -0,0 +1,108 @@
+package com.vuog.telebotmanager.infrastructure.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void reportsZeroWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.percentile(50)).isZero();
+        assertThat(histogram.percentile(99)).isZero();
+    }
+
+    @Test
+    void recordsSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < 8; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.percentile(0)).isZero();
+        assertThat(histogram.percentile(50)).isEqualTo(3);
+        assertThat(histogram.percentile(100)).isEqualTo(7);
+    }
+
+    @Test
+    void percentilesAreWithinTheBucketErrorOfUniformSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertWithinBucketError(histogram.percentile(50), 500);
+        assertWithinBucketError(histogram.percentile(95), 950);
+        assertWithinBucketError(histogram.percentile(99), 990);
+    }
+
+    @Test
+    void singleValuesAreNeverUnderReported() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long value = 1 + random.nextInt(10_000_000);
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+
+            assertWithinBucketError(histogram.percentile(100), value);
+        }
+    }
+
+    @Test
+    void clampsOutOfRangeValues() {
+        LatencyHistogram negative = new LatencyHistogram();
+        negative.record(-5);
+        LatencyHistogram huge = new LatencyHistogram();
+        huge.record(Long.MAX_VALUE);
+
+        assertThat(negative.percentile(100)).isZero();
+        assertThat(huge.percentile(100)).isEqualTo((1L << 25) - 1);
+    }
+
+    @Test
+    void keepsEverySampleUnderConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int samplesPerThread = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                // Half the threads record 1 ms, the other half 1000 ms
+                long value = t % 2 == 0 ? 1 : 1000;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < samplesPerThread; i++) {
+                        histogram.record(value);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Lost increments would shift the median off the exact half-way split
+        assertThat(histogram.percentile(50)).isEqualTo(1);
+        assertThat(histogram.percentile(50.001)).isGreaterThanOrEqualTo(1000);
+    }
+
+    private static void assertWithinBucketError(long reported, long exact) {
+        assertThat(reported).isGreaterThanOrEqualTo(exact).isLessThanOrEqualTo((long) Math.ceil(exact * 1.125));
+    }
+}